@@ -0,0 +1,44 @@
+package edu.montana.csci.csci468.bench;
+
+import edu.montana.csci.csci468.eval.CatscriptRuntime;
+import edu.montana.csci.csci468.parser.CatScriptParser;
+import edu.montana.csci.csci468.parser.statements.CatScriptProgram;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Interprets integer arithmetic and comparisons on values outside the Integer cache;
+ * run with -prof gc to see the allocation per operation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ArithmeticBenchmark {
+
+    static final String SOURCE = "var data = [1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18, 19, 20]\n" +
+            "var hits = 0\n" +
+            "for (i in data) {\n" +
+            "  for (j in data) {\n" +
+            "    if ((i * 1000 + j * 37) / 3 - i * j * 11 > 2000 + -(j * 7)) { hits = hits + 1 }\n" +
+            "  }\n" +
+            "}\n";
+
+    private CatScriptProgram program;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        program = new CatScriptParser().parse(SOURCE);
+        program.verify();
+    }
+
+    @Benchmark
+    public CatscriptRuntime execute() {
+        CatscriptRuntime runtime = new CatscriptRuntime();
+        program.execute(runtime);
+        return runtime;
+    }
+}
@@ -0,0 +1,67 @@
+package edu.montana.csci.csci468.bench;
+
+import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
+import edu.montana.csci.csci468.bytecode.CompileOptions;
+import edu.montana.csci.csci468.parser.CatScriptParser;
+import edu.montana.csci.csci468.parser.statements.CatScriptProgram;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generated classes per target release: the cost of defining, verifying and linking a
+ * generated program class, and of a loop building strings, which uses String.valueOf()
+ * and concat() for release 5 and invokedynamic from 11 on.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClassFileVersionBenchmark {
+
+    @Param({"5", "11", "17"})
+    public int targetRelease;
+
+    private String className;
+    private byte[] classBytes;
+    private Class<? extends CatScriptProgram> concatClass;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        CompileOptions options = new CompileOptions();
+        options.setTargetRelease(targetRelease);
+
+        CatScriptProgram program = new CatScriptParser().parse(CorpusGenerator.generate(10240));
+        program.verify();
+        ByteCodeGenerator generator = new ByteCodeGenerator(program, options);
+        classBytes = generator.compileToBytes();
+        className = generator.getProgramInternalName().replace('/', '.');
+
+        StringBuilder data = new StringBuilder("[");
+        for (int i = 0; i < 100; i++) {
+            data.append(i == 0 ? "" : ", ").append(i * 1000);
+        }
+        data.append("]");
+        CatScriptProgram concat = new CatScriptParser().parse(
+                "function describe(name : string) {\n" +
+                "  for (i in " + data + ") { print(\"item \" + i + \" of \" + name + \", \" + (i + 1) + \" next\") }\n" +
+                "}\n" +
+                "describe(\"data\")\n");
+        concat.verify();
+        concatClass = new ByteCodeGenerator(concat, options).compileToClass();
+    }
+
+    @Benchmark
+    public CatScriptProgram defineAndVerify() {
+        return ByteCodeGenerator.newInstance(ByteCodeGenerator.defineProgramClass(className, classBytes));
+    }
+
+    @Benchmark
+    public String concatenate() {
+        CatScriptProgram program = ByteCodeGenerator.newInstance(concatClass);
+        program.execute();
+        return program.getOutput();
+    }
+}
@@ -0,0 +1,57 @@
+package edu.montana.csci.csci468.bench;
+
+import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
+import edu.montana.csci.csci468.bytecode.CompileOptions;
+import edu.montana.csci.csci468.parser.CatScriptParser;
+import edu.montana.csci.csci468.parser.statements.CatScriptProgram;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the optional compile steps: bytecode verification, disassembly and
+ * dumping .class files, each toggled independently.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CompileOptionsBenchmark {
+
+    @Param({"10240"})
+    public int sourceSize;
+
+    @Param({"false", "true"})
+    public boolean verify;
+
+    @Param({"false", "true"})
+    public boolean disassemble;
+
+    @Param({"false", "true"})
+    public boolean dump;
+
+    private CatScriptProgram program;
+    private CompileOptions options;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        program = new CatScriptParser().parse(CorpusGenerator.generate(sourceSize));
+        program.verify();
+        options = new CompileOptions();
+        options.setIsolatedClassLoader(true);
+        options.setVerifyBytecode(verify);
+        options.setDisassemble(disassemble);
+        if (dump) {
+            options.setDumpDirectory(Files.createTempDirectory("catscript-dump"));
+        }
+    }
+
+    @Benchmark
+    public Class<? extends CatScriptProgram> compile() {
+        return new ByteCodeGenerator(program, options).compileToClass();
+    }
+}
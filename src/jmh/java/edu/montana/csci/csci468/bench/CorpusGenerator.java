@@ -0,0 +1,54 @@
+package edu.montana.csci.csci468.bench;
+
+/**
+ * Generates valid CatScript programs of (roughly) a requested size for the benchmarks.
+ *
+ * The work is spread across many small functions that are called through a shallow tree
+ * of "group" functions, so that the compiled execute() method and every generated method
+ * stay well below the JVM's 64k method size limit even for multi-megabyte sources.
+ */
+public class CorpusGenerator {
+
+    private static final int BLOCKS_PER_FUNCTION = 8;
+    private static final int FUNCTIONS_PER_GROUP = 64;
+
+    public static String generate(int targetSize) {
+        StringBuilder src = new StringBuilder(targetSize + 4096);
+        src.append("var seed = 7\n\n");
+        int functions = 0;
+        while (src.length() < targetSize) {
+            appendFunction(src, functions++);
+        }
+        int groups = (functions + FUNCTIONS_PER_GROUP - 1) / FUNCTIONS_PER_GROUP;
+        for (int group = 0; group < groups; group++) {
+            src.append("function group").append(group).append("() {\n");
+            int last = Math.min(functions, (group + 1) * FUNCTIONS_PER_GROUP);
+            for (int f = group * FUNCTIONS_PER_GROUP; f < last; f++) {
+                src.append("  work").append(f).append("()\n");
+            }
+            src.append("}\n\n");
+        }
+        for (int group = 0; group < groups; group++) {
+            src.append("group").append(group).append("()\n");
+        }
+        return src.toString();
+    }
+
+    private static void appendFunction(StringBuilder src, int f) {
+        src.append("function work").append(f).append("() {\n");
+        for (int b = 0; b < BLOCKS_PER_FUNCTION; b++) {
+            String suffix = f + "_" + b;
+            int k = (f + b) % 9 + 1;
+            src.append("  var a").append(suffix).append(" = ").append(k).append(" + 4 * (2 - ").append(b).append(")\n");
+            src.append("  var s").append(suffix).append(" = \"cat\" + a").append(suffix).append("\n");
+            src.append("  for (i").append(suffix).append(" in [1, 2, 3, ").append(k).append(", 5]) {\n");
+            src.append("    if (i").append(suffix).append(" > 2) {\n");
+            src.append("      print(s").append(suffix).append(" + i").append(suffix).append(")\n");
+            src.append("    } else {\n");
+            src.append("      print(i").append(suffix).append(" * a").append(suffix).append(" - seed)\n");
+            src.append("    }\n");
+            src.append("  }\n");
+        }
+        src.append("}\n\n");
+    }
+}
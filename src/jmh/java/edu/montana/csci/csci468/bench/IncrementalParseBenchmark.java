@@ -0,0 +1,49 @@
+package edu.montana.csci.csci468.bench;
+
+import edu.montana.csci.csci468.parser.CatScriptParser;
+import edu.montana.csci.csci468.parser.IncrementalParser;
+import edu.montana.csci.csci468.parser.statements.CatScriptProgram;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parses a generated program after a one character edit in the middle, the way the editor
+ * resends it on each keystroke, with a full parse and with the IncrementalParser.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IncrementalParseBenchmark {
+
+    @Param({"102400", "1048576"})
+    public int sourceSize;
+
+    @Param({"true", "false"})
+    public boolean incremental;
+
+    private String[] versions;
+    private int next;
+    private IncrementalParser parser;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        String source = CorpusGenerator.generate(sourceSize);
+        int middle = source.indexOf(" + 4 * (2 - ", source.length() / 2);
+        versions = new String[]{source, source.substring(0, middle) + " + 5" + source.substring(middle + 4)};
+        parser = new IncrementalParser();
+        parser.parse(versions[0]);
+    }
+
+    @Benchmark
+    public CatScriptProgram keystroke() {
+        next = 1 - next;
+        if (incremental) {
+            return parser.parse(versions[next]);
+        }
+        return new CatScriptParser().parse(versions[next]);
+    }
+}
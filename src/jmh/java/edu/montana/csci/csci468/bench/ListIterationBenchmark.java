@@ -0,0 +1,54 @@
+package edu.montana.csci.csci468.bench;
+
+import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
+import edu.montana.csci.csci468.eval.CatscriptRuntime;
+import edu.montana.csci.csci468.parser.CatScriptParser;
+import edu.montana.csci.csci468.parser.statements.CatScriptProgram;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Subtracts every pair from a list<int> of 500 values that are mostly outside the Integer
+ * cache, interpreted and compiled.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ListIterationBenchmark {
+
+    @Param({"false", "true"})
+    public boolean compiled;
+
+    private CatScriptProgram program;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        StringBuilder source = new StringBuilder("var data = [");
+        for (int i = 0; i < 500; i++) {
+            source.append(i == 0 ? "" : ", ").append(i * 7);
+        }
+        source.append("]\n")
+                .append("for (i in data) {\n")
+                .append("  for (j in data) { var difference = i - j }\n")
+                .append("}\n");
+        program = new CatScriptParser().parse(source.toString());
+        program.verify();
+        if (compiled) {
+            program = new ByteCodeGenerator(program).compileToBytecode();
+        }
+    }
+
+    @Benchmark
+    public CatScriptProgram iterate() {
+        if (compiled) {
+            program.execute();
+        } else {
+            program.execute(new CatscriptRuntime());
+        }
+        return program;
+    }
+}
@@ -0,0 +1,96 @@
+package edu.montana.csci.csci468.bench;
+
+import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
+import edu.montana.csci.csci468.bytecode.CompileOptions;
+import edu.montana.csci.csci468.parser.CatScriptParser;
+import edu.montana.csci.csci468.parser.expressions.Expression;
+import edu.montana.csci.csci468.parser.expressions.ListLiteralExpression;
+import edu.montana.csci.csci468.parser.statements.CatScriptProgram;
+import edu.montana.csci.csci468.parser.statements.ForStatement;
+import edu.montana.csci.csci468.parser.statements.Statement;
+import edu.montana.csci.csci468.parser.statements.VariableStatement;
+import org.objectweb.asm.Opcodes;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compiled code building a 100 element list<string> literal 100 times, on its own and
+ * iterating over each one, with array-backed and LinkedList literals.  The compiler only
+ * builds the former; the latter is emitted by LinkedListLiteral below, as it used to be.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ListLiteralBenchmark {
+
+    @Param({"false", "true"})
+    public boolean linkedListLiterals;
+
+    @Param({"false", "true"})
+    public boolean iterate;
+
+    private CatScriptProgram program;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        StringBuilder counter = new StringBuilder("[");
+        StringBuilder strings = new StringBuilder("[");
+        for (int i = 0; i < 100; i++) {
+            counter.append(i == 0 ? "" : ", ").append(i);
+            strings.append(i == 0 ? "" : ", ").append("\"s").append(i).append("\"");
+        }
+        counter.append("]");
+        strings.append("]");
+        String body = iterate ? "for (s in " + strings + ") { var t = s }" : "var values = " + strings;
+        String source = "for (i in " + counter + ") { " + body + " }\n";
+
+        program = new CatScriptParser().parse(source);
+        if (linkedListLiterals) {
+            Statement inner = ((ForStatement) program.getStatements().get(0)).getBody().get(0);
+            if (inner instanceof ForStatement) {
+                ForStatement loop = (ForStatement) inner;
+                loop.setExpression(new LinkedListLiteral(((ListLiteralExpression) loop.getExpression()).getValues()));
+            } else {
+                VariableStatement variable = (VariableStatement) inner;
+                variable.setExpression(new LinkedListLiteral(((ListLiteralExpression) variable.getExpression()).getValues()));
+            }
+        }
+        program.verify();
+        program = new ByteCodeGenerator(program, new CompileOptions()).compileToBytecode();
+    }
+
+    // a LinkedList filled one add() at a time, as compiled list literals used to be
+    static class LinkedListLiteral extends ListLiteralExpression {
+
+        LinkedListLiteral(List<Expression> values) {
+            super(values);
+        }
+
+        @Override
+        public void compile(ByteCodeGenerator code) {
+            String linkedList = ByteCodeGenerator.internalNameFor(LinkedList.class);
+            code.addTypeInstruction(Opcodes.NEW, linkedList);
+            code.addInstruction(Opcodes.DUP);
+            code.addMethodInstruction(Opcodes.INVOKESPECIAL, linkedList, "<init>", "()V");
+            for (Expression value : getValues()) {
+                code.addInstruction(Opcodes.DUP);
+                value.compile(code);
+                box(code, value.getType());
+                code.addMethodInstruction(Opcodes.INVOKEVIRTUAL, linkedList, "add", "(Ljava/lang/Object;)Z");
+                code.addInstruction(Opcodes.POP);
+            }
+        }
+    }
+
+    @Benchmark
+    public CatScriptProgram execute() {
+        program.execute();
+        return program;
+    }
+}
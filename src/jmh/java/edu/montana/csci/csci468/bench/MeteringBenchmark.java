@@ -0,0 +1,55 @@
+package edu.montana.csci.csci468.bench;
+
+import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
+import edu.montana.csci.csci468.bytecode.CompileOptions;
+import edu.montana.csci.csci468.eval.StringOutputSink;
+import edu.montana.csci.csci468.parser.CatScriptParser;
+import edu.montana.csci.csci468.parser.statements.CatScriptProgram;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loop-heavy compiled code with and without step metering: 250,000 iterations of a nested
+ * loop over a list<int>, plus a function call and a list literal per outer iteration.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MeteringBenchmark {
+
+    @Param({"false", "true"})
+    public boolean metered;
+
+    private CatScriptProgram program;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        StringBuilder source = new StringBuilder("var data = [");
+        for (int i = 0; i < 500; i++) {
+            source.append(i == 0 ? "" : ", ").append(i * 7);
+        }
+        source.append("]\n")
+                .append("function row(i : int) {\n")
+                .append("  for (j in data) { if (i * j == 7203) { print([i, j]) } }\n")
+                .append("}\n")
+                .append("for (i in data) { row(i) }\n");
+        CatScriptProgram parsed = new CatScriptParser().parse(source.toString());
+        parsed.verify();
+        CompileOptions options = new CompileOptions();
+        if (metered) {
+            options.setMeteredSteps(Long.MAX_VALUE);
+        }
+        program = new ByteCodeGenerator(parsed, options).compileToBytecode();
+    }
+
+    @Benchmark
+    public String iterate() {
+        StringOutputSink output = new StringOutputSink();
+        program.execute(output);
+        return output.getOutput();
+    }
+}
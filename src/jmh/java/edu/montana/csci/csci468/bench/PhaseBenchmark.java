@@ -0,0 +1,95 @@
+package edu.montana.csci.csci468.bench;
+
+import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
+import edu.montana.csci.csci468.eval.CatscriptRuntime;
+import edu.montana.csci.csci468.parser.CatScriptParser;
+import edu.montana.csci.csci468.parser.statements.CatScriptProgram;
+import edu.montana.csci.csci468.tokenizer.CatScriptTokenizer;
+import edu.montana.csci.csci468.tokenizer.TokenList;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of each CatScript phase over generated corpora from 1 KB to 10 MB.
+ *
+ *   mvn -B -Pbench package
+ *   java -jar target/benchmarks.jar PhaseBenchmark -prof gc
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class PhaseBenchmark {
+
+    @Param({"1024", "102400", "1048576", "10485760"})
+    public int sourceSize;
+
+    private String source;
+    private CatScriptProgram parsedProgram;
+    private CatScriptProgram verifiedProgram;
+
+    @Setup(Level.Trial)
+    public void generateCorpus() {
+        source = CorpusGenerator.generate(sourceSize);
+        parsedProgram = new CatScriptParser().parse(source);
+        verifiedProgram = new CatScriptParser().parse(source);
+        verifiedProgram.verify();
+    }
+
+    @Benchmark
+    public TokenList tokenize() {
+        TokenList tokens = new CatScriptTokenizer(source).getTokens();
+        tokens.clearMark();
+        while (tokens.hasMoreTokens()) {
+            tokens.consumeToken();
+        }
+        return tokens;
+    }
+
+    @Benchmark
+    public CatScriptProgram parse() {
+        return new CatScriptParser().parse(source);
+    }
+
+    @Benchmark
+    public CatScriptProgram verify() {
+        parsedProgram.verify();
+        return parsedProgram;
+    }
+
+    @Benchmark
+    public CatScriptProgram verifyParallel() {
+        parsedProgram.verify(ForkJoinPool.commonPool());
+        return parsedProgram;
+    }
+
+    @Benchmark
+    public CatScriptProgram compile() {
+        return new ByteCodeGenerator(verifiedProgram).compileToBytecode();
+    }
+
+    /**
+     * Programs accumulate their output, so every invocation runs a freshly parsed and
+     * verified copy; the setup is not part of the measurement.
+     */
+    @State(Scope.Thread)
+    public static class ExecutionState {
+        CatScriptProgram program;
+
+        @Setup(Level.Invocation)
+        public void prepare(PhaseBenchmark benchmark) {
+            program = new CatScriptParser().parse(benchmark.source);
+            program.verify();
+        }
+    }
+
+    @Benchmark
+    public String evaluate(ExecutionState state) {
+        state.program.execute(new CatscriptRuntime());
+        return state.program.getOutput();
+    }
+}
@@ -0,0 +1,42 @@
+package edu.montana.csci.csci468.bench;
+
+import edu.montana.csci.csci468.eval.CatscriptRuntime;
+import edu.montana.csci.csci468.parser.CatScriptParser;
+import edu.montana.csci.csci468.parser.statements.CatScriptProgram;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Interprets a recursive fib, where nearly every statement executed is a return.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RecursionBenchmark {
+
+    @Param({"15", "20"})
+    public int n;
+
+    private CatScriptProgram program;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        program = new CatScriptParser().parse("function fib(n : int) : int {\n" +
+                "  if (n < 2) { return n }\n" +
+                "  return fib(n - 1) + fib(n - 2)\n" +
+                "}\n" +
+                "var result = fib(" + n + ")\n");
+        program.verify();
+    }
+
+    @Benchmark
+    public CatscriptRuntime fib() {
+        CatscriptRuntime runtime = new CatscriptRuntime();
+        program.execute(runtime);
+        return runtime;
+    }
+}
@@ -0,0 +1,59 @@
+package edu.montana.csci.csci468.bench;
+
+import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
+import edu.montana.csci.csci468.eval.StreamingOutputSink;
+import edu.montana.csci.csci468.eval.StringOutputSink;
+import edu.montana.csci.csci468.parser.CatScriptParser;
+import edu.montana.csci.csci468.parser.statements.CatScriptProgram;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A compiled program printing 10,000 lines, collected into a string and then written out
+ * the way the server used to, against streamed through chunks as it prints.  Run with
+ * -prof gc to compare the allocation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StreamingOutputBenchmark {
+
+    private Class<? extends CatScriptProgram> programClass;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        StringBuilder data = new StringBuilder("[");
+        for (int i = 0; i < 100; i++) {
+            data.append(i == 0 ? "" : ", ").append(i);
+        }
+        data.append("]");
+        CatScriptProgram program = new CatScriptParser().parse(
+                "for (i in " + data + ") { for (j in " + data + ") { print(\"row \" + i + \" column \" + j) } }");
+        program.verify();
+        programClass = new ByteCodeGenerator(program).compileToClass();
+    }
+
+    @Benchmark
+    public OutputStream buffered() throws Exception {
+        OutputStream out = OutputStream.nullOutputStream();
+        StringOutputSink output = new StringOutputSink();
+        ByteCodeGenerator.newInstance(programClass).execute(output);
+        out.write(output.getOutput().getBytes(StandardCharsets.UTF_8));
+        return out;
+    }
+
+    @Benchmark
+    public OutputStream streamed() {
+        OutputStream out = OutputStream.nullOutputStream();
+        try (StreamingOutputSink output = new StreamingOutputSink(out)) {
+            ByteCodeGenerator.newInstance(programClass).execute(output);
+        }
+        return out;
+    }
+}
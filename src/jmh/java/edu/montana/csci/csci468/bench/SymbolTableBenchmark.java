@@ -0,0 +1,66 @@
+package edu.montana.csci.csci468.bench;
+
+import edu.montana.csci.csci468.parser.CatScriptParser;
+import edu.montana.csci.csci468.parser.SymbolTable;
+import edu.montana.csci.csci468.parser.statements.CatScriptProgram;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validates functions whose bodies nest for loops inside ifs, with every level reading
+ * variables from the levels above it and from the globals, using the persistent symbol
+ * table and the original stack of scope maps.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SymbolTableBenchmark {
+
+    private static final int GLOBALS = 64;
+    private static final int FUNCTIONS = 16;
+
+    @Param({"4", "16", "32"})
+    public int depth;
+
+    @Param({"true", "false"})
+    public boolean persistent;
+
+    private CatScriptProgram program;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        StringBuilder src = new StringBuilder();
+        for (int g = 0; g < GLOBALS; g++) {
+            src.append("var g").append(g).append(" = ").append(g).append("\n");
+        }
+        for (int f = 0; f < FUNCTIONS; f++) {
+            src.append("function f").append(f).append("(a : int) {\n");
+            for (int d = 0; d < depth; d++) {
+                src.append("if (a > ").append(d).append(") {\n");
+                src.append("for (i").append(d).append(" in [1, 2]) {\n");
+                src.append("var v").append(d).append(" = i").append(d).append(" + a + g").append(d % GLOBALS).append("\n");
+            }
+            src.append("print(a");
+            for (int d = 0; d < depth; d++) {
+                src.append(" + v").append(d).append(" + i").append(d);
+            }
+            src.append(")\n");
+            for (int d = 0; d < depth; d++) {
+                src.append("}\n}\n");
+            }
+            src.append("}\n");
+        }
+        program = new CatScriptParser().parse(src.toString());
+        program.verify();
+    }
+
+    @Benchmark
+    public CatScriptProgram validate() {
+        program.validate(persistent ? new SymbolTable() : SymbolTable.withScopeMaps());
+        return program;
+    }
+}
@@ -0,0 +1,52 @@
+package edu.montana.csci.csci468.bench;
+
+import edu.montana.csci.csci468.eval.CatscriptRuntime;
+import edu.montana.csci.csci468.parser.CatScriptParser;
+import edu.montana.csci.csci468.parser.statements.CatScriptProgram;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Interprets a loop-heavy script with slot-resolved frames and with the original
+ * name-keyed scope maps.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VariableAccessBenchmark {
+
+    static final String SOURCE = "var data = [1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18, 19, 20]\n" +
+            "var scale = 3\n" +
+            "var total = 0\n" +
+            "function work(k : int) {\n" +
+            "  for (i in data) {\n" +
+            "    for (j in data) {\n" +
+            "      var v = i * scale + j - k\n" +
+            "      if (v > 78) { total = total + v }\n" +
+            "    }\n" +
+            "  }\n" +
+            "}\n" +
+            "for (k in data) { work(k) }\n";
+
+    @Param({"true", "false"})
+    public boolean slotResolved;
+
+    private CatScriptProgram program;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        program = new CatScriptParser().parse(SOURCE);
+        program.verify();
+    }
+
+    @Benchmark
+    public CatscriptRuntime execute() {
+        CatscriptRuntime runtime = slotResolved ? new CatscriptRuntime() : CatscriptRuntime.withNamedScopes();
+        program.execute(runtime);
+        return runtime;
+    }
+}
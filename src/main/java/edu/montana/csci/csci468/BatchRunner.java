@@ -0,0 +1,130 @@
+package edu.montana.csci.csci468;
+
+import edu.montana.csci.csci468.bytecode.CompiledProgramCache;
+import edu.montana.csci.csci468.eval.ExecutionBudget;
+import edu.montana.csci.csci468.eval.ExecutionScheduler;
+import edu.montana.csci.csci468.eval.StringOutputSink;
+import edu.montana.csci.csci468.parser.statements.CatScriptProgram;
+import edu.montana.csci.csci468.util.Json;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Runs the programs of a POST /batch request.  The body is either a JSON array or
+ * newline-delimited JSON, and each program is a source string or an object with a "src"
+ * member.  Every program is an execution of its own on the ExecutionScheduler, with its
+ * own budget, and goes through the shared CompiledProgramCache; one the compiler cannot
+ * handle yet is interpreted from the tree the cache keeps for it instead.
+ *
+ * Up to window programs run at once.  Results are written in the order of the request, as
+ * soon as each one and all those before it have finished, one JSON object per program:
+ * {"index":0,"output":"..."} or {"index":0,"error":"..."}.  They come back as a JSON array
+ * if the request was one and as newline-delimited JSON otherwise.
+ */
+class BatchRunner {
+
+    private final ExecutionScheduler scheduler;
+    private final CompiledProgramCache cache;
+    private final int window;
+
+    BatchRunner(ExecutionScheduler scheduler, CompiledProgramCache cache, int window) {
+        this.scheduler = scheduler;
+        this.cache = cache;
+        this.window = window;
+    }
+
+    static boolean isJsonArray(String body) {
+        return body.trim().startsWith("[");
+    }
+
+    /**
+     * The program sources in a request body; malformed bodies throw an
+     * IllegalArgumentException.
+     */
+    static List<String> readSources(String body) {
+        List<Object> programs = new ArrayList<>();
+        if (isJsonArray(body)) {
+            programs.addAll((List<?>) Json.parse(body));
+        } else {
+            for (String line : body.split("\n")) {
+                if (!line.isBlank()) {
+                    programs.add(Json.parse(line));
+                }
+            }
+        }
+        List<String> sources = new ArrayList<>(programs.size());
+        for (Object program : programs) {
+            if (program instanceof Map && ((Map<?, ?>) program).get("src") instanceof String) {
+                program = ((Map<?, ?>) program).get("src");
+            }
+            if (!(program instanceof String)) {
+                throw new IllegalArgumentException("Program " + sources.size() +
+                        " is neither a string nor an object with a \"src\" string");
+            }
+            sources.add((String) program);
+        }
+        return sources;
+    }
+
+    void run(List<String> sources, Writer out, boolean jsonArray) throws IOException {
+        Deque<Callable<String>> pending = new ArrayDeque<>();
+        int next = 0;
+        if (jsonArray) {
+            out.write("[\n");
+        }
+        for (int index = 0; index < sources.size(); index++) {
+            while (next < sources.size() && next < index + window) {
+                pending.add(submit(sources.get(next++)));
+            }
+            String result;
+            try {
+                result = "\"output\":" + Json.quote(pending.remove().call());
+            } catch (Throwable e) {
+                // a script recursing without end overflows only its own stack, so it is one
+                // failed program; anything worse than that still ends the batch
+                if (e instanceof VirtualMachineError && !(e instanceof StackOverflowError)) {
+                    throw (VirtualMachineError) e;
+                }
+                String message = e.getMessage() != null ? e.getMessage() : e.getClass().getName();
+                result = "\"error\":" + Json.quote(message);
+            }
+            if (jsonArray && index > 0) {
+                out.write(",\n");
+            }
+            out.write("{\"index\":" + index + "," + result + "}");
+            if (!jsonArray) {
+                out.write("\n");
+            }
+            out.flush();
+        }
+        if (jsonArray) {
+            out.write("\n]\n");
+        }
+        out.flush();
+    }
+
+    private Callable<String> submit(String source) {
+        try {
+            return scheduler.submit(budget -> execute(source, budget))::get;
+        } catch (RejectedExecutionException e) {
+            return () -> {
+                throw e;
+            };
+        }
+    }
+
+    private String execute(String source, ExecutionBudget budget) {
+        CatScriptProgram program = cache.getRunnableProgram(source);
+        StringOutputSink output = new StringOutputSink();
+        program.execute(output, budget);
+        return output.getOutput();
+    }
+}
@@ -1,8 +1,16 @@
 package edu.montana.csci.csci468;
 
-import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
+import edu.montana.csci.csci468.bytecode.CompiledProgramCache;
+import edu.montana.csci.csci468.bytecode.ProgramClassStore;
+import edu.montana.csci.csci468.eval.ExecutionBudget;
+import edu.montana.csci.csci468.eval.ExecutionCancelledException;
+import edu.montana.csci.csci468.eval.ExecutionScheduler;
+import edu.montana.csci.csci468.eval.OutputSink;
+import edu.montana.csci.csci468.eval.StreamingOutputSink;
+import edu.montana.csci.csci468.eval.StringOutputSink;
 import edu.montana.csci.csci468.js.JSTranspiler;
 import edu.montana.csci.csci468.parser.CatScriptParser;
+import edu.montana.csci.csci468.parser.IncrementalParser;
 import edu.montana.csci.csci468.parser.ParseError;
 import edu.montana.csci.csci468.parser.ParseErrorException;
 import edu.montana.csci.csci468.parser.statements.CatScriptProgram;
@@ -10,19 +18,60 @@ import edu.montana.csci.csci468.tokenizer.CatScriptTokenizer;
 import edu.montana.csci.csci468.tokenizer.TokenList;
 import edu.montana.csci.csci468.util.HTMLParseTreeRenderer;
 import edu.montana.csci.csci468.util.Web;
+import spark.Request;
+import spark.Response;
+import spark.Route;
 import spark.Spark;
 
+import java.io.BufferedWriter;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 
 import static spark.Spark.*;
 
 class CatScriptServer {
+
+    private static final CompiledProgramCache PROGRAM_CACHE = new CompiledProgramCache(512, programStore());
+
+    // scripts run here rather than on Jetty's workers; -Dcatscript.maxPending,
+    // -Dcatscript.wallClockMillis and -Dcatscript.cpuTimeMillis tune the limits
+    private static final ExecutionScheduler SCHEDULER = new ExecutionScheduler(
+            Runtime.getRuntime().availableProcessors(),
+            Integer.getInteger("catscript.maxPending", 256),
+            Long.getLong("catscript.wallClockMillis", 5000),
+            Long.getLong("catscript.cpuTimeMillis", 2000));
+
+    // parse nodes optimize() removed from the trees /evaluate and /transpile ran
+    private static final AtomicLong OPTIMIZED_NODES = new AtomicLong();
+
+    private static final int MAX_BATCH = Integer.getInteger("catscript.maxBatch", 1000);
+    // two programs per core, so the cores stay busy while results are written in order
+    private static final BatchRunner BATCH = new BatchRunner(SCHEDULER, PROGRAM_CACHE,
+            2 * Runtime.getRuntime().availableProcessors());
+
+    // -Dcatscript.cacheDir=... keeps compiled programs across restarts
+    private static ProgramClassStore programStore() {
+        String directory = System.getProperty("catscript.cacheDir");
+        if (directory == null) {
+            return null;
+        }
+        return new ProgramClassStore(Paths.get(directory), Long.getLong("catscript.cacheMaxBytes", 64L * 1024 * 1024));
+    }
+
     public static void main(String[] args) {
         port(6789);
         Spark.staticFiles.location("/public");
@@ -46,39 +95,56 @@ class CatScriptServer {
             return Web.renderTemplate("templates/index.vm", "code", code);
         });
 
-        get("/tokenize", (req, resp) -> {
+        // every token goes into the response, so tokenizing the whole source costs no more
+        // than rendering it; the token list only keeps a window, so there is no full list
+        // left from the last keystroke to patch
+        get("/tokenize", scheduled((req, resp, budget) -> {
             String source = req.queryParams("src");
             TokenList tokens = new CatScriptTokenizer(source).getTokens();
             return "<pre>" +
                     tokens.stream().map(token -> token.toString() + "\n").collect(Collectors.toList()) +
                     "</pr>";
-        });
+        }));
 
-        get("/parse", (req, resp) -> {
+        get("/parse", scheduled((req, resp, budget) -> {
             String source = req.queryParams("src");
-            CatScriptProgram program = new CatScriptParser().parse(source);
-            return HTMLParseTreeRenderer.render(program);
-        });
+            IncrementalParser parser = sessionParser(req);
+            synchronized (parser) {
+                CatScriptProgram program = parser.parse(source);
+                return HTMLParseTreeRenderer.render(program);
+            }
+        }));
 
-        get("/evaluate", (req, resp) -> {
+        get("/evaluate", scheduled((req, resp, budget) -> {
             String source = req.queryParams("src");
-            CatScriptProgram program = new CatScriptParser().parse(source);
             try {
+                // not the session's tree: the next keystroke reparses into that one while this
+                // runs, and optimize() would fold it in place.  Running costs more than the
+                // full parse anyway
+                CatScriptProgram program = new CatScriptParser().parse(source);
                 program.verify();
-                program.execute();
-                return program.getOutput();
+                OPTIMIZED_NODES.addAndGet(program.optimize());
+                if (streaming(req)) {
+                    return stream(resp, budget, program::execute);
+                }
+                StringOutputSink output = new StringOutputSink();
+                program.execute(output, budget);
+                return output.getOutput();
             } catch (ParseErrorException parseErrorException) {
                 parseErrorException.printStackTrace();
                 return "<pre>" + parseErrorException.getMessage() + "</pre>";
             }
-        });
+        }));
 
+        // the script engine has no hook for a budget, so a transpiled program could never be
+        // cancelled; it runs on the Jetty worker rather than holding a scheduler thread
         get("/transpile", (req, resp) -> {
             String source = req.queryParams("src");
-
+            // a tree of its own, like /evaluate, so the folding stays off the session's tree
             CatScriptProgram program = new CatScriptParser().parse(source);
             try {
                 program.verify();
+                OPTIMIZED_NODES.addAndGet(program.optimize());
                 JSTranspiler jsTranspiler = new JSTranspiler(program);
                 String jsSource = jsTranspiler.getJavascriptSource();
                 String output = jsTranspiler.evaluate();
@@ -89,20 +155,129 @@ class CatScriptServer {
             }
         });
 
-        get("/compile", (req, resp) -> {
+        get("/compile", scheduled((req, resp, budget) -> {
             String source = req.queryParams("src");
-            CatScriptProgram program = new CatScriptParser().parse(source);
             try {
-                program.verify();
-                ByteCodeGenerator byteCodeGenerator = new ByteCodeGenerator(program);
-                CatScriptProgram compiledProgram = byteCodeGenerator.compileToBytecode();
-                compiledProgram.execute();
-                return compiledProgram.getOutput();
+                CatScriptProgram program = PROGRAM_CACHE.getProgram(source);
+                if (streaming(req)) {
+                    return stream(resp, budget, program::execute);
+                }
+                StringOutputSink output = new StringOutputSink();
+                program.execute(output, budget);
+                return output.getOutput();
             } catch (ParseErrorException parseErrorException) {
                 parseErrorException.printStackTrace();
                 return "<pre>" + parseErrorException.getMessage() + "</pre>";
             }
+        }));
+
+        post("/batch", (req, resp) -> {
+            String body = req.body();
+            List<String> sources;
+            try {
+                sources = BatchRunner.readSources(body);
+            } catch (IllegalArgumentException e) {
+                resp.status(400);
+                return e.getMessage();
+            }
+            if (sources.size() > MAX_BATCH) {
+                resp.status(413);
+                return "At most " + MAX_BATCH + " programs per batch";
+            }
+            boolean jsonArray = BatchRunner.isJsonArray(body);
+            resp.type(jsonArray ? "application/json" : "application/x-ndjson");
+            Writer out = new BufferedWriter(new OutputStreamWriter(resp.raw().getOutputStream(), StandardCharsets.UTF_8));
+            BATCH.run(sources, out, jsonArray);
+            return "";
+        });
+
+        get("/metrics", (req, resp) -> {
+            resp.type("text/plain");
+            return "scheduler.virtualThreads " + SCHEDULER.isUsingVirtualThreads() + "\n" +
+                    "scheduler.queueDepth " + SCHEDULER.getQueueDepth() + "\n" +
+                    "scheduler.maxQueueDepth " + SCHEDULER.getMaxQueueDepth() + "\n" +
+                    "scheduler.running " + SCHEDULER.getRunning() + "\n" +
+                    "scheduler.completed " + SCHEDULER.getCompleted() + "\n" +
+                    "scheduler.cancelled " + SCHEDULER.getCancelled() + "\n" +
+                    "scheduler.rejected " + SCHEDULER.getRejected() + "\n" +
+                    "optimizer.removedNodes " + (OPTIMIZED_NODES.get() + PROGRAM_CACHE.getOptimizedNodes()) + "\n";
         });
 
+        exception(ExecutionCancelledException.class, (exception, req, resp) -> {
+            // a streamed response has its status already; the message then ends the stream
+            if (!resp.raw().isCommitted()) {
+                resp.status(408);
+            }
+            resp.body("<pre>" + exception.getMessage() + "</pre>");
+        });
+
+        exception(RejectedExecutionException.class, (exception, req, resp) -> {
+            resp.status(503);
+            resp.header("Retry-After", "1");
+            resp.body("<pre>too many scripts running, try again shortly</pre>");
+        });
+
+    }
+
+    // with ?stream=true the output goes to the client in chunks while the program runs,
+    // instead of being collected and sent once it has finished
+    private static boolean streaming(Request req) {
+        return "true".equals(req.queryParams("stream"));
+    }
+
+    // no content length is set, so the container sends the response chunked; a client
+    // that reads slowly blocks the program's prints rather than letting output pile up.
+    // Once the execution is cancelled its caller may have finished the response, so from
+    // then on writes end the execution instead of reaching the response
+    private static String stream(Response resp, ExecutionBudget budget,
+                                 BiConsumer<OutputSink, ExecutionBudget> execution) throws IOException {
+        resp.type("text/plain;charset=utf-8");
+        OutputStream responseStream = new FilterOutputStream(resp.raw().getOutputStream()) {
+            @Override
+            public void write(byte[] bytes, int offset, int length) throws IOException {
+                checkNotCancelled();
+                out.write(bytes, offset, length);
+            }
+
+            @Override
+            public void flush() throws IOException {
+                checkNotCancelled();
+                out.flush();
+            }
+
+            private void checkNotCancelled() {
+                if (budget.isCancelled()) {
+                    throw new ExecutionCancelledException("execution cancelled");
+                }
+            }
+        };
+        try (StreamingOutputSink output = new StreamingOutputSink(responseStream)) {
+            // loops check the budget, so output waiting there goes out while they run
+            budget.setOnCheck(output::flushIfDue);
+            execution.accept(output, budget);
+        }
+        return "";
+    }
+
+    private interface ScheduledRoute {
+        Object handle(Request req, Response resp, ExecutionBudget budget) throws Exception;
+    }
+
+    // runs the route on the execution scheduler, so the Jetty worker only waits for it
+    private static Route scheduled(ScheduledRoute route) {
+        return (req, resp) -> SCHEDULER.run(budget -> route.handle(req, resp, budget));
+    }
+
+    // the editor resends the whole source on every keystroke, so each session keeps its
+    // last program and only reparses the statements around the change
+    private static IncrementalParser sessionParser(Request req) {
+        synchronized (req.session().raw()) {
+            IncrementalParser parser = req.session().attribute("parser");
+            if (parser == null) {
+                parser = new IncrementalParser();
+                req.session().attribute("parser", parser);
+            }
+            return parser;
+        }
     }
 }
\ No newline at end of file
@@ -5,8 +5,12 @@ import org.objectweb.asm.*;
 import org.objectweb.asm.util.CheckClassAdapter;
 import org.objectweb.asm.util.TraceClassVisitor;
 
+import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Stack;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -21,20 +25,46 @@ public class ByteCodeGenerator {
     private Stack<MethodGenerator> methodStack;
 
     private final CatScriptProgram program;
+    private final CompileOptions options;
     private String internalClassName;
     private String dotClassName;
+    private String disassembly;
 
     public ByteCodeGenerator(CatScriptProgram program) {
+        this(program, new CompileOptions());
+    }
+
+    public ByteCodeGenerator(CatScriptProgram program, CompileOptions options) {
         this.program = program;
+        this.options = options;
+    }
+
+    public CompileOptions getOptions() {
+        return options;
     }
 
     public CatScriptProgram compileToBytecode() {
+        return newInstance(compileToClass());
+    }
+
+    public Class<? extends CatScriptProgram> compileToClass() {
+        byte[] classBytes = compileToBytes();
+        return loadClass(dotClassName, classBytes);
+    }
+
+    /**
+     * Generates the program's class without loading it; getProgramInternalName() names
+     * it.  The class has a static main() that runs the program through ProgramLauncher.
+     */
+    public byte[] compileToBytes() {
         methodStack = new Stack<>();
-        classWriter = new ClassWriter(ClassWriter.COMPUTE_MAXS | ClassWriter.COMPUTE_FRAMES);
+        classWriter = new ProgramClassWriter();
         internalClassName = "edu/montana/csci/csci466/bytecode/CatScriptProgram" + classInteger.incrementAndGet();
         dotClassName = internalClassName.replace('/', '.');
         makeClass(internalClassName);
         makeConstructor();
+        makeNewExecution();
+        makeMain();
 
         currentMethod = makeMethod(Opcodes.ACC_PUBLIC, "execute", "()V");
         program.compile(this);
@@ -42,23 +72,51 @@ public class ByteCodeGenerator {
 
         classWriter.visitEnd();
         byte[] classBytes = classWriter.toByteArray();
-        printClassASM(classBytes);
-        return loadClass(dotClassName, classBytes);
+        checkClass(classBytes);
+        dumpClass(classBytes);
+        return classBytes;
     }
 
     private void makeClass(String className) {
-        classWriter.visit(Opcodes.V1_5, Opcodes.ACC_PUBLIC,
-                className, null, internalNameFor(CatScriptProgram.class) , null);
+        classWriter.visit(options.getClassFileVersion(), Opcodes.ACC_PUBLIC,
+                className, null, internalNameFor(JVMCatScriptProgram.class) , null);
     }
 
     private void makeConstructor() {
         try (MethodGenerator constructor = makeMethod(Opcodes.ACC_PUBLIC, "<init>", "()V")) {
             constructor.addVarInstruction(Opcodes.ALOAD, 0);
-            constructor.addMethodInstruction(Opcodes.INVOKESPECIAL, internalNameFor(CatScriptProgram.class), "<init>", "()V");
+            constructor.addMethodInstruction(Opcodes.INVOKESPECIAL, internalNameFor(JVMCatScriptProgram.class), "<init>", "()V");
+            if (options.isMetered()) {
+                constructor.addVarInstruction(Opcodes.ALOAD, 0);
+                constructor.pushConstantOntoStack(options.getMeteredSteps());
+                constructor.addMethodInstruction(Opcodes.INVOKEVIRTUAL, internalNameFor(JVMCatScriptProgram.class),
+                        "startMetering", "(J)V");
+            }
             constructor.addInstruction(Opcodes.RETURN);
         }
     }
 
+    private void makeNewExecution() {
+        try (MethodGenerator newExecution = makeMethod(Opcodes.ACC_PROTECTED, "newExecution",
+                "()L" + internalNameFor(JVMCatScriptProgram.class) + ";")) {
+            newExecution.addTypeInstruction(Opcodes.NEW, internalClassName);
+            newExecution.addInstruction(Opcodes.DUP);
+            newExecution.addMethodInstruction(Opcodes.INVOKESPECIAL, internalClassName, "<init>", "()V");
+            newExecution.addInstruction(Opcodes.ARETURN);
+        }
+    }
+
+    private void makeMain() {
+        try (MethodGenerator main = makeMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, "main", "([Ljava/lang/String;)V")) {
+            main.addTypeInstruction(Opcodes.NEW, internalClassName);
+            main.addInstruction(Opcodes.DUP);
+            main.addMethodInstruction(Opcodes.INVOKESPECIAL, internalClassName, "<init>", "()V");
+            main.addMethodInstruction(Opcodes.INVOKESTATIC, internalNameFor(ProgramLauncher.class), "run",
+                    "(L" + internalNameFor(CatScriptProgram.class) + ";)V");
+            main.addInstruction(Opcodes.RETURN);
+        }
+    }
+
     public static String internalNameFor(Class clazz) {
         final String name = clazz.getName();
         return name.replace(".", "/");
@@ -80,23 +138,72 @@ public class ByteCodeGenerator {
         return new MethodGenerator(method);
     }
 
-    private void printClassASM(byte[] classBytes) {
+    private void checkClass(byte[] classBytes) {
+        if (!options.isVerifyBytecode() && !options.isDisassemble()) {
+            return;
+        }
         StringWriter writer = new StringWriter();
-        var visitor = new TraceClassVisitor(new PrintWriter(writer));
-        CheckClassAdapter checkAdapter = new CheckClassAdapter(visitor);
-        ClassReader reader = new ClassReader(classBytes);
-        reader.accept(checkAdapter, 0);
-        String decompiledTransformedClass = writer.getBuffer().toString();
-        System.out.println(" JVM Bytecode ===================================\n");
-        System.out.println(decompiledTransformedClass);
-        System.out.println("\n ================================================");
+        ClassVisitor visitor;
+        if (options.isDisassemble()) {
+            visitor = new TraceClassVisitor(new PrintWriter(writer));
+        } else {
+            visitor = new ClassVisitor(Opcodes.ASM9) {};
+        }
+        if (options.isVerifyBytecode()) {
+            visitor = new CheckClassAdapter(visitor);
+        }
+        new ClassReader(classBytes).accept(visitor, 0);
+        if (options.isDisassemble()) {
+            disassembly = writer.toString();
+        }
+    }
+
+    private void dumpClass(byte[] classBytes) {
+        Path dumpDirectory = options.getDumpDirectory();
+        if (dumpDirectory == null) {
+            return;
+        }
+        try {
+            Path classFile = dumpDirectory.resolve(internalClassName + ".class");
+            Files.createDirectories(classFile.getParent());
+            Files.write(classFile, classBytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * The textual listing of the last generated class, or null unless the
+     * disassemble option is set.
+     */
+    public String getDisassembly() {
+        return disassembly;
+    }
+
+    private Class<? extends CatScriptProgram> loadClass(String dotClassName, byte[] classBytes) {
+        return defineClass(options.isIsolatedClassLoader() ? new DynamicClassLoader() : CLASS_LOADER, dotClassName, classBytes);
     }
 
-    private CatScriptProgram loadClass(String dotClassName, byte[] classBytes) {
+    /**
+     * Defines the bytes of a class generated earlier, possibly by another JVM, in a class
+     * loader of its own.
+     */
+    public static Class<? extends CatScriptProgram> defineProgramClass(String dotClassName, byte[] classBytes) {
+        return defineClass(new DynamicClassLoader(), dotClassName, classBytes);
+    }
+
+    private static Class<? extends CatScriptProgram> defineClass(DynamicClassLoader classLoader, String dotClassName, byte[] classBytes) {
+        try {
+            classLoader.defineClass(dotClassName, classBytes);
+            return classLoader.loadClass(dotClassName).asSubclass(CatScriptProgram.class);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public static CatScriptProgram newInstance(Class<? extends CatScriptProgram> programClass) {
         try {
-            CLASS_LOADER.defineClass(dotClassName, classBytes);
-            Class<?> clazz = CLASS_LOADER.loadClass(dotClassName);
-            return (CatScriptProgram) clazz.getConstructor().newInstance();
+            return programClass.getConstructor().newInstance();
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
@@ -118,7 +225,36 @@ public class ByteCodeGenerator {
         return internalClassName;
     }
 
+    /**
+     * Computing stack map frames needs the common superclass of two types that meet at a
+     * branch target, which ASM finds by loading them; the program class being generated
+     * cannot be loaded yet, and its superclass is JVMCatScriptProgram.
+     */
+    private class ProgramClassWriter extends ClassWriter {
+        ProgramClassWriter() {
+            super(ClassWriter.COMPUTE_MAXS | ClassWriter.COMPUTE_FRAMES);
+        }
+
+        @Override
+        protected String getCommonSuperClass(String type1, String type2) {
+            if (type1.equals(internalClassName) || type2.equals(internalClassName)) {
+                String other = type1.equals(internalClassName) ? type2 : type1;
+                return other.equals(internalClassName) ? internalClassName : getCommonSuperClass(internalNameFor(JVMCatScriptProgram.class), other);
+            }
+            return super.getCommonSuperClass(type1, type2);
+        }
+
+        @Override
+        protected ClassLoader getClassLoader() {
+            return CatScriptProgram.class.getClassLoader();
+        }
+    }
+
     static class DynamicClassLoader extends ClassLoader {
+        DynamicClassLoader() {
+            super(CatScriptProgram.class.getClassLoader());
+        }
+
         public void defineClass(String name, byte[] bytes) {
             defineClass(name, bytes, 0, bytes.length);
         }
@@ -140,6 +276,10 @@ public class ByteCodeGenerator {
         currentMethod.addVarInstruction(opcode, var);
     }
 
+    public void addIincInstruction(int var, int increment) {
+        currentMethod.addIincInstruction(var, increment);
+    }
+
     public void addTypeInstruction(int opcode, String type) {
         currentMethod.addTypeInstruction(opcode, type);
     }
@@ -152,6 +292,47 @@ public class ByteCodeGenerator {
         currentMethod.addMethodInstruction(opcode, owner, name, descriptor);
     }
 
+    public void addInvokeDynamicInstruction(String name, String descriptor, Handle bootstrapMethod, Object... bootstrapArguments) {
+        currentMethod.addInvokeDynamicInstruction(name, descriptor, bootstrapMethod, bootstrapArguments);
+    }
+
+    /**
+     * Emits a call to JVMCatScriptProgram.checkBudget(), for the back-edge of a loop or the
+     * entry of a function.  In metered mode a step is charged instead, and the budget is
+     * checked whenever the steps are refilled.
+     */
+    public void addBudgetCheck() {
+        if (options.isMetered()) {
+            addMeteringCharge(1);
+            return;
+        }
+        addVarInstruction(Opcodes.ALOAD, 0);
+        addMethodInstruction(Opcodes.INVOKEVIRTUAL, internalNameFor(JVMCatScriptProgram.class), "checkBudget", "()V");
+    }
+
+    /**
+     * In metered mode, takes the given number of steps off JVMCatScriptProgram.steps and
+     * calls stepsExhausted() once it goes negative; emits nothing otherwise.
+     */
+    public void addMeteringCharge(int count) {
+        if (!options.isMetered()) {
+            return;
+        }
+        String owner = internalNameFor(JVMCatScriptProgram.class);
+        Label remaining = new Label();
+        addVarInstruction(Opcodes.ALOAD, 0);
+        addInstruction(Opcodes.DUP);
+        addFieldInstruction(Opcodes.GETFIELD, "steps", "I", owner);
+        pushConstantOntoStack(count);
+        addInstruction(Opcodes.ISUB);
+        addInstruction(Opcodes.DUP_X1);
+        addFieldInstruction(Opcodes.PUTFIELD, "steps", "I", owner);
+        addJumpInstruction(Opcodes.IFGE, remaining);
+        addVarInstruction(Opcodes.ALOAD, 0);
+        addMethodInstruction(Opcodes.INVOKEVIRTUAL, owner, "stepsExhausted", "()V");
+        addLabel(remaining);
+    }
+
     public void addJumpInstruction(int opcode, Label label) {
         currentMethod.addJumpInstruction(opcode, label);
     }
@@ -0,0 +1,113 @@
+package edu.montana.csci.csci468.bytecode;
+
+import org.objectweb.asm.Opcodes;
+
+import java.nio.file.Path;
+
+/**
+ * Settings for a single ByteCodeGenerator run.  The debugging aids are all off by
+ * default, so the normal compile path only generates and loads the class.
+ */
+public class CompileOptions {
+
+    /**
+     * When set, every compiled program is defined in its own class loader, so the class
+     * (and its Metaspace) can be unloaded once nothing references the program any more.
+     * Otherwise all programs share one loader and live for the life of the JVM.
+     */
+    private boolean isolatedClassLoader;
+
+    // run the generated class through ASM's CheckClassAdapter, including data flow analysis
+    private boolean verifyBytecode;
+
+    // keep a textual listing of the generated class, see ByteCodeGenerator.getDisassembly()
+    private boolean disassemble;
+
+    // when not null, every generated class is also written here as a .class file
+    private Path dumpDirectory;
+
+    /**
+     * The Java release whose class file version programs are generated for: 11 (the
+     * default) or 17, with stack map frames so the JVM can use its fast type-checking
+     * verifier, or 5 for the old version 49 class files that make it infer types instead.
+     * String concatenation uses invokedynamic from 11 on.
+     */
+    private int targetRelease = 11;
+
+    /**
+     * When positive, the generated code counts steps, one per loop iteration and function
+     * call plus one per element of each list literal built, and every execution ends with a
+     * StepBudgetExceededException once it has taken this many.  Zero, the default, generates
+     * no counting at all.
+     */
+    private long meteredSteps;
+
+    public boolean isIsolatedClassLoader() {
+        return isolatedClassLoader;
+    }
+
+    public void setIsolatedClassLoader(boolean isolatedClassLoader) {
+        this.isolatedClassLoader = isolatedClassLoader;
+    }
+
+    public boolean isVerifyBytecode() {
+        return verifyBytecode;
+    }
+
+    public void setVerifyBytecode(boolean verifyBytecode) {
+        this.verifyBytecode = verifyBytecode;
+    }
+
+    public boolean isDisassemble() {
+        return disassemble;
+    }
+
+    public void setDisassemble(boolean disassemble) {
+        this.disassemble = disassemble;
+    }
+
+    public Path getDumpDirectory() {
+        return dumpDirectory;
+    }
+
+    public void setDumpDirectory(Path dumpDirectory) {
+        this.dumpDirectory = dumpDirectory;
+    }
+
+    public boolean isMetered() {
+        return meteredSteps > 0;
+    }
+
+    public long getMeteredSteps() {
+        return meteredSteps;
+    }
+
+    public void setMeteredSteps(long meteredSteps) {
+        if (meteredSteps < 0) {
+            throw new IllegalArgumentException("Negative step budget " + meteredSteps);
+        }
+        this.meteredSteps = meteredSteps;
+    }
+
+    public int getTargetRelease() {
+        return targetRelease;
+    }
+
+    public void setTargetRelease(int targetRelease) {
+        if (targetRelease != 5 && targetRelease != 11 && targetRelease != 17) {
+            throw new IllegalArgumentException("Unsupported target release " + targetRelease + ", use 5, 11 or 17");
+        }
+        this.targetRelease = targetRelease;
+    }
+
+    int getClassFileVersion() {
+        switch (targetRelease) {
+            case 5:
+                return Opcodes.V1_5;
+            case 17:
+                return Opcodes.V17;
+            default:
+                return Opcodes.V11;
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package edu.montana.csci.csci468.bytecode;
+
+import edu.montana.csci.csci468.parser.CatScriptParser;
+import edu.montana.csci.csci468.parser.statements.CatScriptProgram;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded, least-recently-used cache from the SHA-256 of a script's source to its
+ * compiled program class.  A hit skips tokenizing, parsing, verifying and code generation
+ * and only instantiates a fresh program, so every caller still gets its own output buffer
+ * and globals.  Each cached class gets its own class loader, so evicted programs can be
+ * unloaded.  With a ProgramClassStore, a miss first looks for the class on disk.
+ *
+ * A program the compiler does not handle yet is cached as its verified tree instead, so
+ * asking for it again neither reparses it nor retries the compile.
+ */
+public class CompiledProgramCache {
+
+    private final int capacity;
+    private final CompileOptions options;
+    private final Map<String, Entry> programs;
+    private final ProgramClassStore store;
+    private long hits;
+    private long misses;
+    private long storeHits;
+    private long optimizedNodes;
+
+    public CompiledProgramCache(int capacity) {
+        this(capacity, null);
+    }
+
+    /**
+     * A cache that also keeps every compiled class in the store, if not null, and looks
+     * there before compiling, so a new JVM does not compile what an earlier one did.
+     */
+    public CompiledProgramCache(int capacity, ProgramClassStore store) {
+        this.capacity = capacity;
+        this.store = store;
+        this.options = new CompileOptions();
+        this.options.setIsolatedClassLoader(true);
+        this.programs = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > CompiledProgramCache.this.capacity;
+            }
+        };
+    }
+
+    // either the compiled class, or the tree to interpret and why it could not be compiled
+    private static class Entry {
+        private final Class<? extends CatScriptProgram> programClass;
+        private final CatScriptProgram interpreted;
+        private final String unsupported;
+
+        private Entry(Class<? extends CatScriptProgram> programClass) {
+            this(programClass, null, null);
+        }
+
+        private Entry(Class<? extends CatScriptProgram> programClass, CatScriptProgram interpreted,
+                      String unsupported) {
+            this.programClass = programClass;
+            this.interpreted = interpreted;
+            this.unsupported = unsupported;
+        }
+    }
+
+    /**
+     * Returns a new, not yet executed instance of the compiled program for this source,
+     * compiling it on a miss.  Scripts that fail to verify throw a ParseErrorException
+     * and are not cached; scripts the compiler does not handle throw an
+     * UnsupportedCompileException.
+     */
+    public CatScriptProgram getProgram(String source) {
+        return ByteCodeGenerator.newInstance(getProgramClass(source));
+    }
+
+    public Class<? extends CatScriptProgram> getProgramClass(String source) {
+        Entry entry = getEntry(source);
+        if (entry.programClass == null) {
+            throw new UnsupportedCompileException(entry.unsupported);
+        }
+        return entry.programClass;
+    }
+
+    /**
+     * Like getProgram(), except that a script the compiler does not handle comes back as
+     * its verified and optimized tree, to be interpreted.  That tree is shared by every
+     * caller, so run it with execute(OutputSink, ExecutionBudget), which gives each run its
+     * own output and globals.
+     */
+    public CatScriptProgram getRunnableProgram(String source) {
+        Entry entry = getEntry(source);
+        return entry.programClass != null ? ByteCodeGenerator.newInstance(entry.programClass) : entry.interpreted;
+    }
+
+    private Entry getEntry(String source) {
+        String key = hash(source);
+        synchronized (this) {
+            Entry entry = programs.get(key);
+            if (entry != null) {
+                hits++;
+                return entry;
+            }
+            misses++;
+        }
+        // compile outside of the lock so one slow script does not stall every other request
+        Class<? extends CatScriptProgram> programClass = store == null ? null : store.load(key);
+        Entry entry;
+        if (programClass != null) {
+            synchronized (this) {
+                storeHits++;
+            }
+            entry = new Entry(programClass);
+        } else {
+            entry = compile(key, source);
+        }
+        synchronized (this) {
+            Entry existing = programs.putIfAbsent(key, entry);
+            return existing != null ? existing : entry;
+        }
+    }
+
+    private Entry compile(String key, String source) {
+        ByteCodeGenerator generator = new ByteCodeGenerator(parse(source), options);
+        try {
+            if (store == null) {
+                return new Entry(generator.compileToClass());
+            }
+            byte[] classBytes = generator.compileToBytes();
+            String className = generator.getProgramInternalName().replace('/', '.');
+            store.store(key, className, classBytes);
+            return new Entry(ByteCodeGenerator.defineProgramClass(className, classBytes));
+        } catch (UnsupportedCompileException e) {
+            // the generator may have got partway through the tree, so interpret a fresh one
+            return new Entry(null, parse(source), e.getMessage());
+        }
+    }
+
+    private CatScriptProgram parse(String source) {
+        CatScriptProgram program = new CatScriptParser().parse(source);
+        program.verify();
+        int removed = program.optimize();
+        synchronized (this) {
+            optimizedNodes += removed;
+        }
+        return program;
+    }
+
+    public synchronized int size() {
+        return programs.size();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Misses that were answered by the store instead of compiling.
+     */
+    public synchronized long getStoreHits() {
+        return storeHits;
+    }
+
+    /**
+     * Parse nodes the optimizer removed from the programs this cache compiled.
+     */
+    public synchronized long getOptimizedNodes() {
+        return optimizedNodes;
+    }
+
+    public synchronized void clear() {
+        programs.clear();
+    }
+
+    static String hash(String source) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return toHex(digest.digest(source.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16));
+            hex.append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+}
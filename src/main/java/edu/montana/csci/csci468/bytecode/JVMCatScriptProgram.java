@@ -1,10 +1,74 @@
 package edu.montana.csci.csci468.bytecode;
 
 import edu.montana.csci.csci468.eval.CatscriptRuntime;
+import edu.montana.csci.csci468.eval.ExecutionBudget;
+import edu.montana.csci.csci468.eval.OutputSink;
 import edu.montana.csci.csci468.parser.statements.CatScriptProgram;
 
-public class JVMCatScriptProgram extends CatScriptProgram {
+/**
+ * The superclass of every generated program class.  The generated execute() keeps the
+ * program's globals in fields of the instance it runs on, so an instance only runs one
+ * execution at a time; execute(OutputSink) instead runs on a fresh instance of the
+ * generated class, which makes a loaded class, or any one instance of it, safe to run
+ * from many threads at once.
+ */
+public abstract class JVMCatScriptProgram extends CatScriptProgram {
+
+    // metered code takes its steps from here and calls stepsExhausted() once it goes
+    // negative, which hands out the budget in slices of this many steps
+    private static final int STEP_SLICE = 1024;
+
+    private ExecutionBudget budget = ExecutionBudget.unlimited();
+    protected int steps;
+    private long stepsLeft;
+
+    @Override
+    public void execute(OutputSink output, ExecutionBudget budget) {
+        JVMCatScriptProgram execution = newExecution();
+        execution.setOutputSink(output);
+        execution.budget = budget;
+        execution.execute();
+    }
+
     @Override
     public void execute(CatscriptRuntime runtime) {
+        execute(runtime.getOutputSink(), runtime.getBudget());
     }
+
+    /**
+     * Called by the generated code once per loop iteration and function call; see ExecutionBudget.check().
+     */
+    public final void checkBudget() {
+        budget.check();
+    }
+
+    /**
+     * Called by the constructor of a class compiled with CompileOptions.setMeteredSteps().
+     */
+    protected final void startMetering(long budget) {
+        steps = 0;
+        stepsLeft = budget;
+    }
+
+    /**
+     * Called by metered code once steps has gone negative.  Checks the execution budget,
+     * which metered loops do not call checkBudget() for, and refills steps with the next
+     * slice of the step budget, if there is enough of it left.
+     */
+    protected final void stepsExhausted() {
+        budget.checkNow();
+        while (steps < 0) {
+            if (stepsLeft == 0) {
+                throw new StepBudgetExceededException();
+            }
+            int slice = (int) Math.min(STEP_SLICE, stepsLeft);
+            stepsLeft -= slice;
+            steps += slice;
+        }
+    }
+
+    /**
+     * A new instance of the generated class, to hold the state of one execution.
+     */
+    protected abstract JVMCatScriptProgram newExecution();
 }
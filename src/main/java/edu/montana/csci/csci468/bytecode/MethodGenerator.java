@@ -49,6 +49,10 @@ public class MethodGenerator implements AutoCloseable {
         delegate.visitVarInsn(opcode, var);
     }
 
+    public void addIincInstruction(int var, int increment) {
+        delegate.visitIincInsn(var, increment);
+    }
+
     public void addTypeInstruction(int opcode, String type) {
         delegate.visitTypeInsn(opcode, type);
     }
@@ -61,6 +65,10 @@ public class MethodGenerator implements AutoCloseable {
         delegate.visitMethodInsn(opcode, owner, name, descriptor);
     }
 
+    public void addInvokeDynamicInstruction(String name, String descriptor, Handle bootstrapMethod, Object... bootstrapArguments) {
+        delegate.visitInvokeDynamicInsn(name, descriptor, bootstrapMethod, bootstrapArguments);
+    }
+
     public void addJumpInstruction(int opcode, Label label) {
         delegate.visitJumpInsn(opcode, label);
     }
@@ -0,0 +1,234 @@
+package edu.montana.csci.csci468.bytecode;
+
+import edu.montana.csci.csci468.parser.statements.CatScriptProgram;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Compiled program classes kept in a directory, so they outlive the JVM that generated
+ * them.  A CompiledProgramCache backed by a store defines the stored bytes on a miss
+ * instead of parsing and compiling the script again.
+ *
+ * Files are named by the hash of the compiler version and the script's source hash, where
+ * the compiler version is a digest of the CatScript class files, so a rebuilt compiler
+ * never picks up classes generated by an older one.  Each file is written to a temporary
+ * name and moved into place, and carries a checksum; a file that is truncated, corrupt or
+ * fails to define is deleted and treated as a miss.  When the files add up to more than the
+ * size limit, the least recently used ones are deleted.
+ *
+ * The store is only a cache: failing to read or write it never fails a compile.
+ */
+public class ProgramClassStore {
+
+    private static final int MAGIC = 0xCA75C0DE;
+    private static final String SUFFIX = ".program";
+    // temporary files this old were left behind by a writer that died
+    private static final long ABANDONED_MILLIS = 10 * 60 * 1000;
+
+    private static volatile String compilerVersion;
+
+    private final Path directory;
+    private final long maxBytes;
+    private final String version;
+
+    public ProgramClassStore(Path directory, long maxBytes) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        this.version = getCompilerVersion();
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * The class stored for this source hash, defined in a class loader of its own, or null
+     * if there is none or it cannot be used.
+     */
+    public Class<? extends CatScriptProgram> load(String sourceHash) {
+        Path file = fileFor(sourceHash);
+        byte[] contents;
+        try {
+            contents = Files.readAllBytes(file);
+        } catch (IOException e) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(contents))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("not a stored program");
+            }
+            String className = in.readUTF();
+            int length = in.readInt();
+            if (length < 0 || length > contents.length) {
+                throw new IOException("truncated");
+            }
+            byte[] classBytes = new byte[length];
+            in.readFully(classBytes);
+            if (in.readLong() != checksum(className, classBytes)) {
+                throw new IOException("checksum mismatch");
+            }
+            Class<? extends CatScriptProgram> programClass = ByteCodeGenerator.defineProgramClass(className, classBytes);
+            touch(file);
+            return programClass;
+        } catch (IOException | RuntimeException | LinkageError e) {
+            delete(file);
+            return null;
+        }
+    }
+
+    public void store(String sourceHash, String className, byte[] classBytes) {
+        Path temporary = null;
+        try {
+            ByteArrayOutputStream contents = new ByteArrayOutputStream(classBytes.length + 128);
+            try (DataOutputStream out = new DataOutputStream(contents)) {
+                out.writeInt(MAGIC);
+                out.writeUTF(className);
+                out.writeInt(classBytes.length);
+                out.write(classBytes);
+                out.writeLong(checksum(className, classBytes));
+            }
+            temporary = Files.createTempFile(directory, sourceHash, ".tmp");
+            Files.write(temporary, contents.toByteArray());
+            Path file = fileFor(sourceHash);
+            try {
+                Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            temporary = null;
+            evict();
+        } catch (IOException e) {
+            // the next miss compiles it again
+        } finally {
+            if (temporary != null) {
+                delete(temporary);
+            }
+        }
+    }
+
+    /**
+     * Deletes the least recently used files until the rest fit in the size limit.
+     */
+    void evict() throws IOException {
+        List<Path> files;
+        try (Stream<Path> list = Files.list(directory)) {
+            files = list.collect(Collectors.toList());
+        }
+        long now = System.currentTimeMillis();
+        List<Path> programs = new ArrayList<>();
+        long totalBytes = 0;
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            try {
+                if (name.endsWith(SUFFIX)) {
+                    programs.add(file);
+                    totalBytes += Files.size(file);
+                } else if (name.endsWith(".tmp") && now - Files.getLastModifiedTime(file).toMillis() > ABANDONED_MILLIS) {
+                    delete(file);
+                }
+            } catch (IOException e) {
+                // removed by another process in the meantime
+            }
+        }
+        if (totalBytes <= maxBytes) {
+            return;
+        }
+        programs.sort(Comparator.comparingLong(ProgramClassStore::lastModified));
+        for (Path file : programs) {
+            if (totalBytes <= maxBytes) {
+                break;
+            }
+            try {
+                long size = Files.size(file);
+                Files.delete(file);
+                totalBytes -= size;
+            } catch (IOException e) {
+                // removed by another process in the meantime
+            }
+        }
+    }
+
+    private Path fileFor(String sourceHash) {
+        return directory.resolve(CompiledProgramCache.hash(version + ":" + sourceHash) + SUFFIX);
+    }
+
+    private static long checksum(String className, byte[] classBytes) {
+        CRC32 crc = new CRC32();
+        crc.update(className.getBytes(StandardCharsets.UTF_8));
+        crc.update(classBytes);
+        return crc.getValue();
+    }
+
+    // the modification time doubles as the last use time
+    private static void touch(Path file) {
+        try {
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            // only affects the eviction order
+        }
+    }
+
+    private static long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            // eviction gets another chance later
+        }
+    }
+
+    /**
+     * A digest of the CatScript class files, which changes whenever the compiler or the
+     * runtime the generated code calls into does.
+     */
+    public static String getCompilerVersion() {
+        String version = compilerVersion;
+        if (version == null) {
+            try {
+                MessageDigest digest = MessageDigest.getInstance("SHA-256");
+                RuntimeClasses.forEach((name, classFile) -> {
+                    digest.update(name.getBytes(StandardCharsets.UTF_8));
+                    digest.update(classFile.readAllBytes());
+                });
+                version = CompiledProgramCache.toHex(digest.digest());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+            compilerVersion = version;
+        }
+        return version;
+    }
+}
@@ -0,0 +1,74 @@
+package edu.montana.csci.csci468.bytecode;
+
+import edu.montana.csci.csci468.parser.CatScriptParser;
+import edu.montana.csci.csci468.parser.statements.CatScriptProgram;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+
+/**
+ * Compiles a program ahead of time into a jar that runs with plain `java -jar`, so a
+ * script that is deployed once and launched many times is not parsed, verified and
+ * compiled on every start.
+ *
+ * The jar holds the generated program class, whose main() is its entry point, and the
+ * CatScript classes it runs against, copied from wherever this class was loaded.  Of
+ * those only the program's superclasses and the runtime it calls are ever loaded; the
+ * compiler and its dependencies are not needed to run the jar.
+ *
+ *   java -cp catscript.jar edu.montana.csci.csci468.bytecode.ProgramJar script.cat script.jar
+ */
+public class ProgramJar {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("usage: ProgramJar <source file> <jar file>");
+            System.exit(2);
+        }
+        String source = Files.readString(Paths.get(args[0]));
+        int removed = write(source, new CompileOptions(), Paths.get(args[1]));
+        System.err.println("optimizer removed " + removed + " parse nodes");
+    }
+
+    /**
+     * Parses, verifies, optimizes and compiles the source into a runnable jar, returning
+     * the number of parse nodes the optimizer removed.  Scripts that fail to verify throw
+     * a ParseErrorException and no jar is written.
+     */
+    public static int write(String source, CompileOptions options, Path jarFile) throws IOException {
+        CatScriptProgram program = new CatScriptParser().parse(source);
+        program.verify();
+        int removed = program.optimize();
+        write(program, options, jarFile);
+        return removed;
+    }
+
+    public static void write(CatScriptProgram program, CompileOptions options, Path jarFile) throws IOException {
+        ByteCodeGenerator generator = new ByteCodeGenerator(program, options);
+        byte[] classBytes = generator.compileToBytes();
+        String internalName = generator.getProgramInternalName();
+
+        Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        manifest.getMainAttributes().put(Attributes.Name.MAIN_CLASS, internalName.replace('/', '.'));
+        try (JarOutputStream jar = new JarOutputStream(Files.newOutputStream(jarFile), manifest)) {
+            jar.putNextEntry(new JarEntry(internalName + ".class"));
+            jar.write(classBytes);
+            jar.closeEntry();
+            RuntimeClasses.forEach((name, in) -> copyEntry(jar, name, in));
+        }
+    }
+
+    private static void copyEntry(JarOutputStream jar, String name, InputStream in) throws IOException {
+        jar.putNextEntry(new JarEntry(name));
+        in.transferTo(jar);
+        jar.closeEntry();
+    }
+}
@@ -0,0 +1,23 @@
+package edu.montana.csci.csci468.bytecode;
+
+import edu.montana.csci.csci468.eval.WriterOutputSink;
+import edu.montana.csci.csci468.parser.statements.CatScriptProgram;
+
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+
+/**
+ * What the static main() of a compiled program calls: runs the program, writing its
+ * output to standard out as it prints.
+ */
+public class ProgramLauncher {
+
+    public static void run(CatScriptProgram program) {
+        WriterOutputSink output = new WriterOutputSink(new BufferedWriter(new OutputStreamWriter(System.out)));
+        try {
+            program.execute(output);
+        } finally {
+            output.flush();
+        }
+    }
+}
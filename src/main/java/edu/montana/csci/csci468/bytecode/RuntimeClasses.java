@@ -0,0 +1,68 @@
+package edu.montana.csci.csci468.bytecode;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * The CatScript class files, read from the directory or jar this class was loaded from.
+ * Compiled programs only run against these.
+ */
+class RuntimeClasses {
+
+    private static final String RUNTIME_PACKAGE = "edu/montana/csci/csci468/";
+
+    interface Visitor {
+        void visit(String name, InputStream classFile) throws IOException;
+    }
+
+    /**
+     * Visits every class file by its name in a jar, in name order.
+     */
+    static void forEach(Visitor visitor) throws IOException {
+        Path location;
+        try {
+            location = Paths.get(RuntimeClasses.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        } catch (URISyntaxException e) {
+            throw new IOException(e);
+        }
+        if (Files.isDirectory(location)) {
+            List<Path> classFiles;
+            try (Stream<Path> files = Files.walk(location.resolve(RUNTIME_PACKAGE))) {
+                classFiles = files.filter(file -> file.toString().endsWith(".class")).collect(Collectors.toList());
+            }
+            List<String> names = new ArrayList<>();
+            for (Path classFile : classFiles) {
+                names.add(location.relativize(classFile).toString().replace(classFile.getFileSystem().getSeparator(), "/"));
+            }
+            Collections.sort(names);
+            for (String name : names) {
+                try (InputStream in = Files.newInputStream(location.resolve(name))) {
+                    visitor.visit(name, in);
+                }
+            }
+        } else {
+            try (JarFile runtimeJar = new JarFile(location.toFile())) {
+                List<JarEntry> entries = runtimeJar.stream()
+                        .filter(entry -> entry.getName().startsWith(RUNTIME_PACKAGE) && entry.getName().endsWith(".class"))
+                        .sorted((first, second) -> first.getName().compareTo(second.getName()))
+                        .collect(Collectors.toList());
+                for (JarEntry entry : entries) {
+                    try (InputStream in = runtimeJar.getInputStream(entry)) {
+                        visitor.visit(entry.getName(), in);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package edu.montana.csci.csci468.bytecode;
+
+import edu.montana.csci.csci468.eval.ExecutionCancelledException;
+
+/**
+ * Ends a metered program that has taken more steps than CompileOptions.setMeteredSteps()
+ * allowed it.
+ */
+public class StepBudgetExceededException extends ExecutionCancelledException {
+
+    public StepBudgetExceededException() {
+        super("step budget exceeded");
+    }
+}
@@ -0,0 +1,13 @@
+package edu.montana.csci.csci468.bytecode;
+
+/**
+ * Thrown while compiling a program that uses something the compiler does not handle yet,
+ * so callers can fall back to the interpreter without catching every
+ * UnsupportedOperationException.
+ */
+public class UnsupportedCompileException extends UnsupportedOperationException {
+
+    public UnsupportedCompileException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,75 @@
+package edu.montana.csci.csci468.eval;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * A list<bool> value stored one bit per element.  Like IntList it is still a
+ * java.util.List for code that does not know its static type.
+ */
+public final class BoolList extends AbstractList<Boolean> implements RandomAccess {
+
+    private long[] bits;
+    private int size;
+
+    public BoolList() {
+        this(64);
+    }
+
+    public BoolList(int capacity) {
+        bits = new long[Math.max((capacity + 63) >>> 6, 1)];
+    }
+
+    /**
+     * The list itself if it is already a BoolList, otherwise a BoolList copy of it, or null
+     * if it holds something other than a Boolean, such as a null.
+     */
+    public static BoolList of(List<?> list) {
+        if (list instanceof BoolList) {
+            return (BoolList) list;
+        }
+        BoolList bools = new BoolList(list.size());
+        for (Object value : list) {
+            if (!(value instanceof Boolean)) {
+                return null;
+            }
+            bools.addBoolean((Boolean) value);
+        }
+        return bools;
+    }
+
+    public void addBoolean(boolean value) {
+        if ((size >>> 6) == bits.length) {
+            bits = Arrays.copyOf(bits, bits.length * 2);
+        }
+        if (value) {
+            bits[size >>> 6] |= 1L << size;
+        }
+        size++;
+    }
+
+    public boolean getBoolean(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return (bits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    @Override
+    public Boolean get(int index) {
+        return getBoolean(index);
+    }
+
+    @Override
+    public boolean add(Boolean value) {
+        addBoolean(value);
+        return true;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+}
@@ -5,15 +5,140 @@ import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.Map;
 
-// TODO - implement proper scoping
+/**
+ * Variable storage for the interpreter.
+ *
+ * By default variables live in array-backed frames and are addressed by the (depth, slot)
+ * coordinates that VariableResolver assigns during verification.  A runtime created with
+ * withNamedScopes() keeps the original behaviour of a stack of name to value maps; it is
+ * only kept around for comparison benchmarks.
+ */
 public class CatscriptRuntime {
     LinkedList<Map<String, Object>> scopes = new LinkedList<>();
 
+    private final boolean slotResolved;
+    private Frame globals;
+    private Frame current;
+    private boolean returning;
+    private Object returnValue;
+    private OutputSink output = new StringOutputSink();
+    private ExecutionBudget budget = ExecutionBudget.unlimited();
+
     public CatscriptRuntime(){
+        this(true);
+    }
+
+    public CatscriptRuntime(OutputSink output) {
+        this(true);
+        this.output = output;
+    }
+
+    public CatscriptRuntime(OutputSink output, ExecutionBudget budget) {
+        this(output);
+        this.budget = budget;
+    }
+
+    private CatscriptRuntime(boolean slotResolved) {
+        this.slotResolved = slotResolved;
         HashMap<String, Object> globalScope = new HashMap<>();
         scopes.push(globalScope);
     }
 
+    public static CatscriptRuntime withNamedScopes() {
+        return new CatscriptRuntime(false);
+    }
+
+    public OutputSink getOutputSink() {
+        return output;
+    }
+
+    public void print(Object value) {
+        output.print(value);
+    }
+
+    public ExecutionBudget getBudget() {
+        return budget;
+    }
+
+    /**
+     * Called once per loop iteration and function call; see ExecutionBudget.check().
+     */
+    public void checkBudget() {
+        budget.check();
+    }
+
+    public boolean isSlotResolved() {
+        return slotResolved;
+    }
+
+    public Object getValue(String name, int depth, int slot) {
+        if (!slotResolved) {
+            return getValue(name);
+        }
+        Frame frame = current;
+        for (int i = 0; i < depth; i++) {
+            frame = frame.parent;
+        }
+        return frame.slots[slot];
+    }
+
+    public void setValue(String name, int depth, int slot, Object val) {
+        if (!slotResolved) {
+            setValue(name, val);
+            return;
+        }
+        Frame frame = current;
+        for (int i = 0; i < depth; i++) {
+            frame = frame.parent;
+        }
+        frame.slots[slot] = val;
+    }
+
+    /**
+     * Enters a program or function body with room for the given number of slots.  The
+     * first frame pushed holds the globals; since functions are only declared at the top
+     * level, it is the lexical parent of every later frame.
+     */
+    public void pushFrame(int size) {
+        if (!slotResolved) {
+            pushScope();
+            return;
+        }
+        current = new Frame(size, globals, current);
+        if (globals == null) {
+            globals = current;
+        }
+    }
+
+    public void popFrame() {
+        if (!slotResolved) {
+            popScope();
+            return;
+        }
+        current = current.caller;
+    }
+
+    /**
+     * Records a return from the function being interpreted.  Statement lists check
+     * isReturning() after each statement and unwind normally, so a return costs a field
+     * write and a branch per enclosing block rather than an exception.
+     */
+    public void setReturnValue(Object value) {
+        returnValue = value;
+        returning = true;
+    }
+
+    public boolean isReturning() {
+        return returning;
+    }
+
+    public Object takeReturnValue() {
+        Object value = returnValue;
+        returnValue = null;
+        returning = false;
+        return value;
+    }
+
     public Object getValue(String name) {
         Iterator<Map<String, Object>> mapIterator = scopes.descendingIterator();
         while (mapIterator.hasNext()) {
@@ -43,4 +168,16 @@ public class CatscriptRuntime {
         scopes.pop();
     }
 
+    private static class Frame {
+        private final Object[] slots;
+        private final Frame parent;
+        private final Frame caller;
+
+        Frame(int size, Frame parent, Frame caller) {
+            this.slots = new Object[size];
+            this.parent = parent;
+            this.caller = caller;
+        }
+    }
+
 }
@@ -0,0 +1,132 @@
+package edu.montana.csci.csci468.eval;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * How long one execution may run, in wall-clock time from start() and in CPU time of the
+ * thread running it.  Loops in the interpreter and in compiled programs call check() once
+ * per iteration, and functions once per call; it only counts down, and every
+ * CHECK_INTERVAL calls looks at the clock and the cancelled flag, ending the execution with
+ * an ExecutionCancelledException once the budget is spent or someone has called cancel().
+ *
+ * Thread CPU time costs around a microsecond to read, so it is only read every 10ms of
+ * wall-clock time.  Where the JVM cannot measure it for the running thread, as for virtual
+ * threads, only the wall-clock budget applies.
+ */
+public class ExecutionBudget {
+
+    private static final int CHECK_INTERVAL = 1024;
+    private static final long CPU_CHECK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private final long wallClockNanos;
+    private final long cpuTimeNanos;
+    private volatile boolean cancelled;
+    private long wallClockStart;
+    private long cpuTimeStart = -1;
+    private long lastCpuCheck;
+    private int untilCheck = CHECK_INTERVAL;
+    private Thread thread;
+    private Runnable onCheck;
+
+    /**
+     * A budget of the given number of milliseconds of each; zero means no limit.
+     */
+    public ExecutionBudget(long wallClockMillis, long cpuTimeMillis) {
+        this.wallClockNanos = TimeUnit.MILLISECONDS.toNanos(wallClockMillis);
+        this.cpuTimeNanos = TimeUnit.MILLISECONDS.toNanos(cpuTimeMillis);
+        this.wallClockStart = System.nanoTime();
+    }
+
+    public static ExecutionBudget unlimited() {
+        return new ExecutionBudget(0, 0);
+    }
+
+    /**
+     * Starts the clocks on the thread that runs the execution, which cancel() interrupts
+     * until finish() is called.
+     */
+    public synchronized void start() {
+        thread = Thread.currentThread();
+        wallClockStart = System.nanoTime();
+        lastCpuCheck = wallClockStart;
+        cpuTimeStart = cpuTimeNanos > 0 ? currentThreadCpuTime() : -1;
+        untilCheck = CHECK_INTERVAL;
+        if (cancelled) {
+            throw new ExecutionCancelledException("execution cancelled");
+        }
+    }
+
+    public synchronized void finish() {
+        thread = null;
+    }
+
+    /**
+     * Ends the execution at its next check, interrupting its thread in case it is blocked.
+     */
+    public synchronized void cancel() {
+        cancelled = true;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    /**
+     * Runs the task on the execution's thread whenever checkNow() runs, so something like
+     * pending output can be dealt with while the program loops.
+     */
+    public void setOnCheck(Runnable task) {
+        this.onCheck = task;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public void check() {
+        if (--untilCheck > 0) {
+            return;
+        }
+        untilCheck = CHECK_INTERVAL;
+        checkNow();
+    }
+
+    /**
+     * Checks the flag and the clocks straight away, for callers that count iterations
+     * themselves.
+     */
+    public void checkNow() {
+        if (cancelled) {
+            throw new ExecutionCancelledException("execution cancelled");
+        }
+        if (onCheck != null) {
+            onCheck.run();
+        }
+        if (wallClockNanos == 0 && cpuTimeStart < 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (wallClockNanos > 0 && now - wallClockStart > wallClockNanos) {
+            throw new ExecutionCancelledException("wall-clock budget of " +
+                    TimeUnit.NANOSECONDS.toMillis(wallClockNanos) + "ms exceeded");
+        }
+        if (cpuTimeStart >= 0 && now - lastCpuCheck >= CPU_CHECK_NANOS) {
+            lastCpuCheck = now;
+            if (currentThreadCpuTime() - cpuTimeStart > cpuTimeNanos) {
+                throw new ExecutionCancelledException("CPU time budget of " +
+                        TimeUnit.NANOSECONDS.toMillis(cpuTimeNanos) + "ms exceeded");
+            }
+        }
+    }
+
+    // -1 when the JVM cannot measure the current thread
+    private static long currentThreadCpuTime() {
+        try {
+            return THREADS.isCurrentThreadCpuTimeSupported() ? THREADS.getCurrentThreadCpuTime() : -1;
+        } catch (UnsupportedOperationException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package edu.montana.csci.csci468.eval;
+
+/**
+ * Ends an execution whose ExecutionBudget was spent or cancelled.
+ */
+public class ExecutionCancelledException extends RuntimeException {
+
+    public ExecutionCancelledException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,226 @@
+package edu.montana.csci.csci468.eval;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs executions on threads of its own instead of the caller's, so a script that loops
+ * forever holds one of the scheduler's threads for its budget rather than a server worker
+ * for good.
+ *
+ * On JDK 21 and later every execution gets a virtual thread; before that they share a fixed
+ * pool of platform threads.  Either way at most maxPending executions are admitted at once,
+ * running or queued, and run() and submit() reject the rest straight away with a
+ * RejectedExecutionException instead of letting the queue grow.
+ *
+ * Each execution gets its own ExecutionBudget, which its loops check.  A caller waits for
+ * the wall-clock budget plus a short grace period, counting the time spent queued; after
+ * that it cancels the execution and throws an ExecutionCancelledException.  Callers that
+ * wait for one execution at a time use run(), callers with several use submit().
+ * Once cancelled, the execution gets up to a second to stop before the caller carries on,
+ * so it is normally over before the caller touches whatever they shared, such as a response.
+ */
+public class ExecutionScheduler implements AutoCloseable {
+
+    private static final long GRACE_MILLIS = 100;
+    private static final long CANCEL_WAIT_MILLIS = 1000;
+
+    private final ExecutorService executor;
+    private final boolean virtualThreads;
+    private final Semaphore admissions;
+    private final long wallClockMillis;
+    private final long cpuTimeMillis;
+
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger maxQueued = new AtomicInteger();
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong cancelled = new AtomicLong();
+
+    public ExecutionScheduler(int threads, int maxPending, long wallClockMillis, long cpuTimeMillis) {
+        this(threads, maxPending, wallClockMillis, cpuTimeMillis, true);
+    }
+
+    /**
+     * With useVirtualThreads false, executions always run on the pool of platform threads.
+     */
+    public ExecutionScheduler(int threads, int maxPending, long wallClockMillis, long cpuTimeMillis,
+                              boolean useVirtualThreads) {
+        ExecutorService virtual = useVirtualThreads ? virtualThreadExecutor() : null;
+        this.virtualThreads = virtual != null;
+        this.executor = virtual != null ? virtual : platformThreadExecutor(threads);
+        this.admissions = new Semaphore(maxPending);
+        this.wallClockMillis = wallClockMillis;
+        this.cpuTimeMillis = cpuTimeMillis;
+    }
+
+    public interface Execution<T> {
+        T run(ExecutionBudget budget) throws Exception;
+    }
+
+    /**
+     * Runs the execution on a scheduler thread and waits for its result.  Exceptions it
+     * throws are rethrown here.
+     */
+    public <T> T run(Execution<T> execution) throws Exception {
+        return submit(execution).get();
+    }
+
+    /**
+     * Starts the execution on a scheduler thread without waiting for it, so a caller can
+     * have several in flight and collect their results in order.
+     */
+    public <T> Scheduled<T> submit(Execution<T> execution) {
+        if (!admissions.tryAcquire()) {
+            rejected.incrementAndGet();
+            throw new RejectedExecutionException("too many executions pending");
+        }
+        ExecutionBudget budget = new ExecutionBudget(wallClockMillis, cpuTimeMillis);
+        maxQueued.accumulateAndGet(queued.incrementAndGet(), Math::max);
+        try {
+            return new Scheduled<>(budget, executor.submit(() -> {
+                queued.decrementAndGet();
+                running.incrementAndGet();
+                try {
+                    budget.start();
+                    return execution.run(budget);
+                } finally {
+                    budget.finish();
+                    // an interrupt from a late cancel() must not reach the next execution
+                    Thread.interrupted();
+                    running.decrementAndGet();
+                    admissions.release();
+                }
+            }));
+        } catch (RejectedExecutionException e) {
+            queued.decrementAndGet();
+            admissions.release();
+            rejected.incrementAndGet();
+            throw e;
+        }
+    }
+
+    /**
+     * An execution started by submit().
+     */
+    public class Scheduled<T> {
+
+        private final ExecutionBudget budget;
+        private final Future<T> result;
+
+        private Scheduled(ExecutionBudget budget, Future<T> result) {
+            this.budget = budget;
+            this.result = result;
+        }
+
+        /**
+         * Waits for the result for up to the wall-clock budget and a short grace period,
+         * then cancels the execution, waits for it to stop and throws an
+         * ExecutionCancelledException.  Exceptions the execution throws are rethrown here.
+         */
+        public T get() throws Exception {
+            try {
+                T value = wallClockMillis > 0 ? result.get(wallClockMillis + GRACE_MILLIS, TimeUnit.MILLISECONDS) : result.get();
+                completed.incrementAndGet();
+                return value;
+            } catch (TimeoutException e) {
+                budget.cancel();
+                cancelled.incrementAndGet();
+                awaitStop();
+                throw new ExecutionCancelledException("wall-clock budget of " + wallClockMillis + "ms exceeded");
+            } catch (InterruptedException e) {
+                budget.cancel();
+                cancelled.incrementAndGet();
+                throw e;
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof ExecutionCancelledException) {
+                    cancelled.incrementAndGet();
+                } else {
+                    completed.incrementAndGet();
+                }
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw (Exception) cause;
+            }
+        }
+
+        // cancel() interrupts the execution and its next check throws, so this is normally
+        // quick; one stuck somewhere that does neither is left to finish on its own
+        private void awaitStop() throws InterruptedException {
+            try {
+                result.get(CANCEL_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (ExecutionException | TimeoutException e) {
+                // it has stopped, or will not in time; the caller gives up either way
+            }
+        }
+    }
+
+    public boolean isUsingVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * Executions admitted but not yet started.
+     */
+    public int getQueueDepth() {
+        return queued.get();
+    }
+
+    public int getMaxQueueDepth() {
+        return maxQueued.get();
+    }
+
+    public int getRunning() {
+        return running.get();
+    }
+
+    public long getCompleted() {
+        return completed.get();
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    public long getCancelled() {
+        return cancelled.get();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    // Executors.newVirtualThreadPerTaskExecutor() on JDK 21+, looked up so the sources
+    // still build for release 11
+    private static ExecutorService virtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    private static ExecutorService platformThreadExecutor(int threads) {
+        AtomicInteger count = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "catscript-execution-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+}
@@ -0,0 +1,84 @@
+package edu.montana.csci.csci468.eval;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * A list<int> value stored as an int[] instead of boxed Integers.
+ *
+ * It is still a java.util.List, so printing, equality and functions taking a list treat it
+ * like any other list; code that knows its static type is list<int> reads the ints
+ * directly.  CatScript lists never change after they are built, so a loop may hold on to
+ * getElements() for as long as it runs.
+ */
+public final class IntList extends AbstractList<Integer> implements RandomAccess {
+
+    private int[] elements;
+    private int size;
+
+    public IntList() {
+        this(10);
+    }
+
+    public IntList(int capacity) {
+        elements = new int[Math.max(capacity, 1)];
+    }
+
+    /**
+     * The list itself if it is already an IntList, otherwise an IntList copy of it, or null
+     * if it holds something other than an Integer.  A list<int> can still hold null, since
+     * [null] is assignable to it, and callers iterate those boxed.
+     */
+    public static IntList of(List<?> list) {
+        if (list instanceof IntList) {
+            return (IntList) list;
+        }
+        IntList ints = new IntList(list.size());
+        for (Object value : list) {
+            if (!(value instanceof Integer)) {
+                return null;
+            }
+            ints.addInt((Integer) value);
+        }
+        return ints;
+    }
+
+    public void addInt(int value) {
+        if (size == elements.length) {
+            elements = Arrays.copyOf(elements, size * 2);
+        }
+        elements[size++] = value;
+    }
+
+    public int getInt(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return elements[index];
+    }
+
+    /**
+     * The backing array; only the first size() elements belong to the list.
+     */
+    public int[] getElements() {
+        return elements;
+    }
+
+    @Override
+    public Integer get(int index) {
+        return getInt(index);
+    }
+
+    @Override
+    public boolean add(Integer value) {
+        addInt(value);
+        return true;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+}
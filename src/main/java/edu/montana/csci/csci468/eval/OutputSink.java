@@ -0,0 +1,17 @@
+package edu.montana.csci.csci468.eval;
+
+/**
+ * Where the print statements of one program execution go.  Every execution gets its own
+ * sink, written only by the thread running it, so sinks are not synchronized.
+ */
+public interface OutputSink {
+
+    void print(Object value);
+
+    /**
+     * The printed text this sink still holds; sinks that pass their output on hold none.
+     */
+    default String getOutput() {
+        return "";
+    }
+}
@@ -0,0 +1,67 @@
+package edu.montana.csci.csci468.eval;
+
+/**
+ * Keeps only the last characters printed, so a program that prints without end holds a
+ * fixed amount of memory.
+ */
+public class RingBufferOutputSink implements OutputSink {
+
+    private final char[] buffer;
+    // the oldest character kept, and how many are kept
+    private int start;
+    private int length;
+    private long dropped;
+
+    public RingBufferOutputSink(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        buffer = new char[capacity];
+    }
+
+    @Override
+    public void print(Object value) {
+        append(String.valueOf(value));
+        append("\n");
+    }
+
+    private void append(String text) {
+        int offset = 0;
+        int count = text.length();
+        if (count > buffer.length) {
+            // only the tail of the text can survive
+            dropped += length + count - buffer.length;
+            offset = count - buffer.length;
+            count = buffer.length;
+            start = 0;
+            length = 0;
+        }
+        int overflow = length + count - buffer.length;
+        if (overflow > 0) {
+            start = (start + overflow) % buffer.length;
+            length -= overflow;
+            dropped += overflow;
+        }
+        int end = (start + length) % buffer.length;
+        int firstPart = Math.min(count, buffer.length - end);
+        text.getChars(offset, offset + firstPart, buffer, end);
+        text.getChars(offset + firstPart, offset + count, buffer, 0);
+        length += count;
+    }
+
+    /**
+     * The number of characters that were printed but no longer fit.
+     */
+    public long getDropped() {
+        return dropped;
+    }
+
+    @Override
+    public String getOutput() {
+        StringBuilder output = new StringBuilder(length);
+        int firstPart = Math.min(length, buffer.length - start);
+        output.append(buffer, start, firstPart);
+        output.append(buffer, 0, length - firstPart);
+        return output.toString();
+    }
+}
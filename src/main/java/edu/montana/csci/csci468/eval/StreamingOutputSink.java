@@ -0,0 +1,122 @@
+package edu.montana.csci.csci468.eval;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.function.LongSupplier;
+
+/**
+ * Streams printed lines to an OutputStream in chunks, so a program that prints a lot
+ * holds at most a chunk of its output in memory and the first lines reach the client
+ * while it is still running.
+ *
+ * A chunk is written, and the stream flushed, once it reaches the chunk size or once its
+ * oldest line has waited longer than the maximum delay.  The delay is checked when something
+ * is printed, at first on every print and then on every second, fourth and so on up to
+ * every 64th, because reading the clock costs about as much as the print itself, and by
+ * flushIfDue(), which the runner can call while the program computes without printing.
+ * The first line, and the first after nothing was written for the maximum delay, is
+ * written straight away, so a program that prints and then works for a while is not
+ * silent meanwhile.
+ *
+ * Writes happen on the thread running the program, so when the other end reads slowly
+ * the blocking write holds the program up instead of letting output pile up.
+ */
+public class StreamingOutputSink implements OutputSink, AutoCloseable {
+
+    public static final int DEFAULT_CHUNK_SIZE = 8 * 1024;
+    public static final long DEFAULT_MAX_DELAY_MILLIS = 50;
+    private static final int MAX_CLOCK_CHECK_INTERVAL = 64;
+
+    private final OutputStream out;
+    private final int chunkSize;
+    private final long maxDelayNanos;
+    private final StringBuilder chunk;
+    private final LongSupplier nanoTime;
+    private long pendingSince;
+    private long lastWrite;
+    private int clockCheckInterval;
+    private int printsUntilClockCheck;
+    private long chunksWritten;
+
+    public StreamingOutputSink(OutputStream out) {
+        this(out, DEFAULT_CHUNK_SIZE, DEFAULT_MAX_DELAY_MILLIS);
+    }
+
+    public StreamingOutputSink(OutputStream out, int chunkSize, long maxDelayMillis) {
+        this(out, chunkSize, maxDelayMillis, System::nanoTime);
+    }
+
+    // tests pass a clock of their own
+    StreamingOutputSink(OutputStream out, int chunkSize, long maxDelayMillis, LongSupplier nanoTime) {
+        this.out = out;
+        this.nanoTime = nanoTime;
+        this.chunkSize = chunkSize;
+        this.maxDelayNanos = maxDelayMillis * 1_000_000;
+        this.chunk = new StringBuilder(chunkSize + 64);
+    }
+
+    @Override
+    public void print(Object value) {
+        boolean first = chunk.length() == 0;
+        chunk.append(value).append('\n');
+        if (chunk.length() >= chunkSize) {
+            flush();
+        } else if (first) {
+            pendingSince = nanoTime.getAsLong();
+            clockCheckInterval = 1;
+            printsUntilClockCheck = 0;
+            if (chunksWritten == 0 || pendingSince - lastWrite >= maxDelayNanos) {
+                flush();
+            }
+        } else if (--printsUntilClockCheck <= 0) {
+            if (nanoTime.getAsLong() - pendingSince >= maxDelayNanos) {
+                flush();
+            } else {
+                clockCheckInterval = Math.min(clockCheckInterval * 2, MAX_CLOCK_CHECK_INTERVAL);
+                printsUntilClockCheck = clockCheckInterval;
+            }
+        }
+    }
+
+    /**
+     * Writes out what is pending if its oldest line has waited longer than the maximum
+     * delay.
+     */
+    public void flushIfDue() {
+        if (chunk.length() > 0 && nanoTime.getAsLong() - pendingSince >= maxDelayNanos) {
+            flush();
+        }
+    }
+
+    /**
+     * Writes out whatever is pending.
+     */
+    public void flush() {
+        if (chunk.length() == 0) {
+            return;
+        }
+        try {
+            out.write(chunk.toString().getBytes(StandardCharsets.UTF_8));
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        chunk.setLength(0);
+        chunksWritten++;
+        lastWrite = nanoTime.getAsLong();
+    }
+
+    public long getChunksWritten() {
+        return chunksWritten;
+    }
+
+    /**
+     * Flushes what is pending; the stream itself is left open.
+     */
+    @Override
+    public void close() {
+        flush();
+    }
+}
@@ -0,0 +1,19 @@
+package edu.montana.csci.csci468.eval;
+
+/**
+ * Keeps everything printed in memory.
+ */
+public class StringOutputSink implements OutputSink {
+
+    private final StringBuilder output = new StringBuilder();
+
+    @Override
+    public void print(Object value) {
+        output.append(value).append("\n");
+    }
+
+    @Override
+    public String getOutput() {
+        return output.toString();
+    }
+}
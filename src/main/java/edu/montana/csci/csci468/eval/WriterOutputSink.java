@@ -0,0 +1,36 @@
+package edu.montana.csci.csci468.eval;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+/**
+ * Writes each print through to a Writer as it happens.  Failures to write end the
+ * execution with an UncheckedIOException.
+ */
+public class WriterOutputSink implements OutputSink {
+
+    private final Writer writer;
+
+    public WriterOutputSink(Writer writer) {
+        this.writer = writer;
+    }
+
+    @Override
+    public void print(Object value) {
+        try {
+            writer.write(String.valueOf(value));
+            writer.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void flush() {
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
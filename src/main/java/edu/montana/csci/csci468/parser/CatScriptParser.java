@@ -7,6 +7,9 @@ import edu.montana.csci.csci468.tokenizer.Token;
 import edu.montana.csci.csci468.tokenizer.TokenList;
 import edu.montana.csci.csci468.tokenizer.TokenType;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -19,12 +22,44 @@ public class CatScriptParser {
     private FunctionDefinitionStatement currentFunctionDefinition;
 
     public CatScriptProgram parse(String source) {
-        tokens = new CatScriptTokenizer(source).getTokens();
+        return parse(new CatScriptTokenizer(source));
+    }
+
+    public CatScriptProgram parse(Reader source) {
+        return parse(new CatScriptTokenizer(source));
+    }
+
+    public CatScriptProgram parse(Path sourceFile) throws IOException {
+        return parse(CatScriptTokenizer.forFile(sourceFile));
+    }
+
+    public CatScriptProgram parse(CatScriptTokenizer tokenizer) {
+        tokens = tokenizer.getTokens();
 
         // first parse an expression
         CatScriptProgram program = new CatScriptProgram();
+        program.setTokenizer(tokenizer);
         program.setStart(tokens.getCurrentToken());
+        Expression expression = parseProgramExpression();
+        if (expression == null) {
+            while (tokens.hasMoreTokens()) {
+                program.addStatement(parseProgramStatement());
+            }
+        } else {
+            program.setExpression(expression);
+        }
+
+        program.setEnd(tokens.getCurrentToken());
+        return program;
+    }
+
+    /**
+     * Parses the whole token stream as a single expression, or rewinds and returns null if
+     * it is not one.
+     */
+    private Expression parseProgramExpression() {
         Expression expression = null;
+        tokens.mark();
         try {
             expression = parseExpression();
         } catch (RuntimeException re) {
@@ -32,20 +67,41 @@ public class CatScriptParser {
         }
         if (expression == null || tokens.hasMoreTokens()) {
             tokens.reset();
-            while (tokens.hasMoreTokens()) {
-                program.addStatement(parseProgramStatement());
-            }
-        } else {
-            program.setExpression(expression);
+            tokens.clearMark();
+            return null;
         }
+        tokens.clearMark();
+        return expression;
+    }
 
-        program.setEnd(tokens.getCurrentToken());
-        return program;
+    /**
+     * True if parse() would turn this source into an expression program.  Only the tokens
+     * of the leading expression are scanned.
+     */
+    boolean isExpressionProgram(CharSequence source) {
+        tokens = new CatScriptTokenizer(source).getTokens();
+        return parseProgramExpression() != null;
+    }
+
+    /**
+     * Parses top level statements from the given tokens, one per call to
+     * parseNextStatement().  Used by the IncrementalParser to reparse part of a program.
+     */
+    void resume(TokenList tokens) {
+        this.tokens = tokens;
+        tokens.clearMark();
+    }
+
+    Statement parseNextStatement() {
+        return parseProgramStatement();
     }
 
     public CatScriptProgram parseAsExpression(String source) {
-        tokens = new CatScriptTokenizer(source).getTokens();
+        CatScriptTokenizer tokenizer = new CatScriptTokenizer(source);
+        tokens = tokenizer.getTokens();
+        tokens.clearMark();
         CatScriptProgram program = new CatScriptProgram();
+        program.setTokenizer(tokenizer);
         program.setStart(tokens.getCurrentToken());
         Expression expression = parseExpression();
         program.setExpression(expression);
@@ -85,7 +141,10 @@ public class CatScriptParser {
             if (tokens.matchAndConsume(EQUAL)) {
                 return parseAssignmentStatement(t);
             }
-            return new FunctionCallStatement(parseFunctionCallExpression(t.getStringValue()));
+            FunctionCallStatement functionCallStatement = new FunctionCallStatement(parseFunctionCallExpression(t));
+            functionCallStatement.setStart(t);
+            functionCallStatement.setEnd(tokens.lastToken());
+            return functionCallStatement;
         }
         return null;
     }
@@ -318,7 +377,7 @@ public class CatScriptParser {
         if (tokens.match(IDENTIFIER)) {
             Token identifierToken = tokens.consumeToken();
             if (tokens.match(LEFT_PAREN)) {
-                return parseFunctionCallExpression(identifierToken.getStringValue());
+                return parseFunctionCallExpression(identifierToken);
             }
             IdentifierExpression identifierExpression = new IdentifierExpression(identifierToken.getStringValue());
             identifierExpression.setToken(identifierToken);
@@ -378,21 +437,27 @@ public class CatScriptParser {
         return listLiteralExpression;
     }
 
-    FunctionCallExpression parseFunctionCallExpression(String functionName) {
+    FunctionCallExpression parseFunctionCallExpression(Token identifier) {
+        String functionName = identifier.getStringValue();
         tokens.consumeToken();
         List<Expression> argumentList = new ArrayList<>();
         if (tokens.matchAndConsume(RIGHT_PAREN)) {
-            return new FunctionCallExpression(functionName, argumentList);
+            FunctionCallExpression functionCallExpression = new FunctionCallExpression(functionName, argumentList);
+            functionCallExpression.setStart(identifier);
+            functionCallExpression.setEnd(tokens.lastToken());
+            return functionCallExpression;
         }
         do {
             argumentList.add(parseExpression());
         } while (tokens.matchAndConsume(COMMA));
         FunctionCallExpression functionCallExpression = new FunctionCallExpression(functionName, argumentList);
+        functionCallExpression.setStart(identifier);
         if (!tokens.match(RIGHT_PAREN)) {
             functionCallExpression.addError(ErrorType.UNTERMINATED_ARG_LIST);
         } else {
             tokens.consumeToken();
         }
+        functionCallExpression.setEnd(tokens.lastToken());
         return functionCallExpression;
     }
 
@@ -1,8 +1,9 @@
 package edu.montana.csci.csci468.parser;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
-import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class CatscriptType {
 
@@ -13,15 +14,100 @@ public class CatscriptType {
     public static final CatscriptType NULL = new CatscriptType("null", Object.class);
     public static final CatscriptType VOID = new CatscriptType("void", Object.class);
 
+    // types nest without limit in untrusted source, so only the builtins and lists of them
+    // up to this depth get an id; each registration adds a bit to every row, so the table
+    // must stay small.  Anything deeper is checked structurally, as before the table
+    static final int MAX_INTERNED_DEPTH = 4;
+    private static final int MAX_REGISTERED = 256;
+
+    // every type that has taken part in an assignability check, indexed by id
+    private static final Object REGISTRY_LOCK = new Object();
+    private static CatscriptType[] registered = new CatscriptType[16];
+    private static int registeredCount;
+
     private final String name;
     private final Class javaClass;
+    // how many lists deep this type is, 0 for the builtins
+    private final int depth;
+    // assigned on first use, once the type is fully constructed; written last on registration
+    private volatile int id = -1;
+    // bit i is set when the type with id i can be assigned to this one; replaced, never
+    // modified, when a type registered later can be assigned to it
+    private volatile long[] assignableFrom;
 
     public CatscriptType(String name, Class javaClass) {
+        this(name, javaClass, 0);
+    }
+
+    private CatscriptType(String name, Class javaClass, int depth) {
         this.name = name;
         this.javaClass = javaClass;
+        this.depth = depth;
+    }
+
+    /**
+     * Answers from a table built when the types were first checked, so a check costs a
+     * bit lookup; types too deeply nested to be in the table are compared structurally.
+     */
+    public final boolean isAssignableFrom(CatscriptType type) {
+        int otherId = type.getId();
+        if (otherId < 0 || getId() < 0) {
+            return computeAssignableFrom(type);
+        }
+        long[] bits = assignableFrom;
+        // rows only grow when a bit is set, so a short row means not assignable
+        return (otherId >>> 6) < bits.length && (bits[otherId >>> 6] & (1L << otherId)) != 0;
     }
 
-    public boolean isAssignableFrom(CatscriptType type) {
+    /**
+     * A small integer unique to this type object, registering the type on first use, or -1
+     * for a type nested too deeply to be registered.
+     */
+    public int getId() {
+        int id = this.id;
+        return id >= 0 || depth > MAX_INTERNED_DEPTH ? id : register(this);
+    }
+
+    private static int register(CatscriptType type) {
+        type.registerComponents();
+        synchronized (REGISTRY_LOCK) {
+            if (type.id >= 0 || registeredCount == MAX_REGISTERED) {
+                return type.id;
+            }
+            int id = registeredCount++;
+            if (id == registered.length) {
+                registered = Arrays.copyOf(registered, id * 2);
+            }
+            registered[id] = type;
+            long[] row = new long[(id >>> 6) + 1];
+            for (int i = 0; i <= id; i++) {
+                CatscriptType other = registered[i];
+                if (type.computeAssignableFrom(other)) {
+                    row[i >>> 6] |= 1L << i;
+                }
+                if (i != id && other.computeAssignableFrom(type)) {
+                    long[] otherRow = Arrays.copyOf(other.assignableFrom, Math.max(row.length, other.assignableFrom.length));
+                    otherRow[id >>> 6] |= 1L << id;
+                    other.assignableFrom = otherRow;
+                }
+            }
+            type.assignableFrom = row;
+            type.id = id;
+            return id;
+        }
+    }
+
+    static int registeredTypes() {
+        synchronized (REGISTRY_LOCK) {
+            return registeredCount;
+        }
+    }
+
+    // types that computeAssignableFrom() consults must be registered before this one
+    void registerComponents() {
+    }
+
+    protected boolean computeAssignableFrom(CatscriptType type) {
         if (type == VOID) {
             return false;
         } else if (type == NULL) {
@@ -32,15 +118,17 @@ public class CatscriptType {
         return false;
     }
 
-    // TODO memoize this call
-    static final HashMap<CatscriptType, ListType> cache = new HashMap<>();
+    // shared by every verify, including function bodies validated in parallel; holds the
+    // list types that can be registered, so it stays as small as the registry
+    static final ConcurrentHashMap<CatscriptType, ListType> cache = new ConcurrentHashMap<>();
 
     public static CatscriptType getListType(CatscriptType type) {
+        if (type.depth >= MAX_INTERNED_DEPTH) {
+            return new ListType(type);
+        }
         ListType potentialMatch = cache.get(type);
         if (potentialMatch == null) {
-            ListType listType = new ListType(type);
-            cache.put(type, listType);
-            return listType;
+            return cache.computeIfAbsent(type, ListType::new);
         } else {
             return potentialMatch;
         }
@@ -74,12 +162,17 @@ public class CatscriptType {
         private final CatscriptType componentType;
 
         public ListType(CatscriptType componentType) {
-            super("list<" + componentType.toString() + ">", List.class);
+            super("list<" + componentType.toString() + ">", List.class, componentType.depth + 1);
             this.componentType = componentType;
         }
 
         @Override
-        public boolean isAssignableFrom(CatscriptType type) {
+        void registerComponents() {
+            componentType.getId();
+        }
+
+        @Override
+        protected boolean computeAssignableFrom(CatscriptType type) {
             if (type == NULL) {
                 return true;
             } else if (type instanceof ListType) {
@@ -92,11 +185,6 @@ public class CatscriptType {
         public CatscriptType getComponentType() {
             return componentType;
         }
-
-        @Override
-        public String toString() {
-            return super.toString() + "<" + componentType.toString() + ">";
-        }
     }
 
 }
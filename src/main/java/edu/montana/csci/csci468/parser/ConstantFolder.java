@@ -0,0 +1,126 @@
+package edu.montana.csci.csci468.parser;
+
+import edu.montana.csci.csci468.parser.expressions.*;
+import edu.montana.csci.csci468.parser.statements.IfStatement;
+import edu.montana.csci.csci468.parser.statements.Statement;
+import edu.montana.csci.csci468.parser.statements.VariableStatement;
+
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Folds expressions whose operands are all literals into a single literal and removes if
+ * branches whose condition folded to a constant.  Runs on a verified tree, so every node
+ * already knows its type; the evaluator, the bytecode generator and the transpiler all see
+ * the folded tree.
+ *
+ * Int arithmetic with an identity operand is simplified as well: x + 0, x - 0, x * 1 and
+ * x / 1 become x, and x * 0 becomes 0 when x has nothing to run that could print or fail.
+ * So do --x and !!b.  Like the compiled code, this takes an int or bool to never be null.
+ */
+public class ConstantFolder {
+
+    private int removedNodes;
+
+    public int getRemovedNodes() {
+        return removedNodes;
+    }
+
+    public boolean isConstant(Expression expression) {
+        return expression instanceof IntegerLiteralExpression ||
+                expression instanceof StringLiteralExpression ||
+                expression instanceof BooleanLiteralExpression ||
+                expression instanceof NullLiteralExpression;
+    }
+
+    /**
+     * Replaces an expression whose operands are all constants with a literal holding
+     * its value.
+     */
+    public Expression replace(Expression original, Object value) {
+        Expression literal;
+        CatscriptType type = original.getType();
+        if (type.equals(CatscriptType.INT)) {
+            literal = new IntegerLiteralExpression((Integer) value);
+        } else if (type.equals(CatscriptType.BOOLEAN)) {
+            literal = new BooleanLiteralExpression((Boolean) value);
+        } else if (type.equals(CatscriptType.STRING)) {
+            literal = new StringLiteralExpression((String) value);
+        } else {
+            return original;
+        }
+        literal.setStart(original.getStart());
+        literal.setEnd(original.getEnd());
+        removedNodes += countNodes(original) - 1;
+        return literal;
+    }
+
+    /**
+     * Replaces an expression with a subexpression that always has the same value.
+     */
+    public Expression simplify(Expression original, Expression replacement) {
+        removedNodes += countNodes(original) - countNodes(replacement);
+        return replacement;
+    }
+
+    public boolean isInteger(Expression expression, int value) {
+        return expression instanceof IntegerLiteralExpression &&
+                ((IntegerLiteralExpression) expression).getValue() == value;
+    }
+
+    /**
+     * True when leaving the expression unevaluated cannot change what a program does: it
+     * calls no functions, which could print, and divides by nothing, which could be zero.
+     */
+    public boolean isDroppable(ParseElement element) {
+        if (element instanceof FunctionCallExpression) {
+            return false;
+        }
+        if (element instanceof FactorExpression && !((FactorExpression) element).isMultiply()) {
+            return false;
+        }
+        for (ParseElement child : element.getChildren()) {
+            if (!isDroppable(child)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public List<Statement> foldStatements(List<Statement> statements) {
+        List<Statement> folded = new LinkedList<>();
+        for (Statement statement : statements) {
+            statement.fold(this);
+            if (statement instanceof IfStatement && ((IfStatement) statement).isConstant()) {
+                List<Statement> live = ((IfStatement) statement).getLiveStatements();
+                // a declaration belongs to the if block's scope, so only branches without
+                // any can be spliced into the enclosing block
+                if (live.stream().noneMatch(s -> s instanceof VariableStatement)) {
+                    int liveNodes = 0;
+                    for (Statement liveStatement : live) {
+                        liveNodes += countNodes(liveStatement);
+                    }
+                    removedNodes += countNodes(statement) - liveNodes;
+                    folded.addAll(live);
+                    continue;
+                }
+            }
+            folded.add(statement);
+        }
+        return folded;
+    }
+
+    public void removed(List<? extends ParseElement> elements) {
+        for (ParseElement element : elements) {
+            removedNodes += countNodes(element);
+        }
+    }
+
+    private int countNodes(ParseElement element) {
+        int count = 1;
+        for (ParseElement child : element.getChildren()) {
+            count += countNodes(child);
+        }
+        return count;
+    }
+}
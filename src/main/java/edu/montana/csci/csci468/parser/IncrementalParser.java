@@ -0,0 +1,159 @@
+package edu.montana.csci.csci468.parser;
+
+import edu.montana.csci.csci468.parser.statements.CatScriptProgram;
+import edu.montana.csci.csci468.parser.statements.Statement;
+import edu.montana.csci.csci468.tokenizer.CatScriptTokenizer;
+import edu.montana.csci.csci468.tokenizer.TokenList;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reparses a program after an editor-style edit, reusing every top level statement the
+ * edit could not have changed.
+ *
+ * Scanning restarts at the first token of the last top level statement that begins before
+ * the edit; the statement before it only looked ahead at that token, so it parses the same
+ * way.  Reparsing stops as soon as the parser is back at the top level on a token past the
+ * edit where an old statement began: the tokenizer carries no state between tokens, so
+ * everything from there on scans and parses exactly as before, and the old statements are
+ * moved over as they are.  Their tokens are not visited: the old tokenizer forwards to the
+ * new one and each token shifts itself past the edit when it is next read, so the cost of
+ * a reparse depends on the size of the edit and the number of top level statements rather
+ * than the size of the source.
+ *
+ * The previous program gives up its statements to the new one and should not be used
+ * afterwards.  Reused statements may already have been verified or optimized; verify()
+ * clears the errors it added before validating them again.  Not thread safe.
+ */
+public class IncrementalParser {
+
+    private CatScriptProgram current;
+    private int reusedStatements;
+    private int reparsedStatements;
+
+    /**
+     * Parses the latest version of a source, reparsing only what changed since the last
+     * call.
+     */
+    public CatScriptProgram parse(String source) {
+        if (current == null) {
+            current = parseFully(new CatScriptParser(), source);
+        } else {
+            current = reparse(current, TextEdit.between(current.getSource(), source));
+        }
+        return current;
+    }
+
+    public CatScriptProgram reparse(CatScriptProgram previous, TextEdit edit) {
+        CharSequence oldSource = previous.getSource();
+        String source = edit.applyTo(oldSource);
+        List<Statement> oldStatements = new ArrayList<>(previous.getStatements());
+        CatScriptParser parser = new CatScriptParser();
+        if (previous.isExpression() || !hasStartTokens(oldStatements) || parser.isExpressionProgram(source)) {
+            return parseFully(parser, source);
+        }
+
+        int delta = edit.getDelta();
+        int lineDelta = edit.getLineDelta(oldSource);
+        int damageEnd = edit.getOffset() + edit.getInsertedText().length();
+
+        int first = Math.max(0, lastStatementBefore(oldStatements, edit.getOffset()));
+        int regionStart = first == 0 ? 0 : startOf(oldStatements.get(first));
+        CatScriptTokenizer tokenizer = CatScriptTokenizer.resume(source, previous.getTokenizer(), regionStart);
+        TokenList tokens = tokenizer.getTokens();
+        parser.resume(tokens);
+
+        CatScriptProgram program = new CatScriptProgram();
+        program.setTokenizer(tokenizer);
+        program.setStart(first > 0 ? previous.getStart() : tokens.getCurrentToken());
+        for (Statement statement : oldStatements.subList(0, first)) {
+            program.addStatement(statement);
+        }
+
+        int reparsed = 0;
+        int resync = -1;
+        int candidate = first;
+        while (tokens.hasMoreTokens()) {
+            int position = tokens.getCurrentToken().getStart();
+            if (position >= damageEnd) {
+                while (candidate < oldStatements.size() && startOf(oldStatements.get(candidate)) + delta < position) {
+                    candidate++;
+                }
+                if (candidate < oldStatements.size() && startOf(oldStatements.get(candidate)) + delta == position) {
+                    resync = candidate;
+                    break;
+                }
+            }
+            program.addStatement(parser.parseNextStatement());
+            reparsed++;
+        }
+
+        if (resync >= 0) {
+            tokenizer.adoptLines(previous.getTokenizer(), delta, lineDelta);
+            for (Statement statement : oldStatements.subList(resync, oldStatements.size())) {
+                program.addStatement(statement);
+            }
+            program.setEnd(previous.getEnd());
+        } else {
+            program.setEnd(tokens.getCurrentToken());
+        }
+        // reused tokens find their new positions the next time they are read
+        previous.getTokenizer().forwardTo(tokenizer, edit.getOffset(), delta, lineDelta);
+
+        reparsedStatements = reparsed;
+        reusedStatements = program.getStatements().size() - reparsed;
+        return program;
+    }
+
+    /**
+     * Top level statements kept from the previous program by the last parse.
+     */
+    public int getReusedStatements() {
+        return reusedStatements;
+    }
+
+    /**
+     * Top level statements parsed from scratch by the last parse.
+     */
+    public int getReparsedStatements() {
+        return reparsedStatements;
+    }
+
+    private CatScriptProgram parseFully(CatScriptParser parser, String source) {
+        CatScriptProgram program = parser.parse(source);
+        reusedStatements = 0;
+        reparsedStatements = program.isExpression() ? 1 : program.getStatements().size();
+        return program;
+    }
+
+    private boolean hasStartTokens(List<Statement> statements) {
+        for (Statement statement : statements) {
+            if (statement.getStart() == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // the last statement whose first token ends before the offset, or -1
+    private int lastStatementBefore(List<Statement> statements, int offset) {
+        int low = 0;
+        int high = statements.size() - 1;
+        int found = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (statements.get(mid).getStart().getEnd() < offset) {
+                found = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return found;
+    }
+
+    private int startOf(Statement statement) {
+        return statement.getStart().getStart();
+    }
+}
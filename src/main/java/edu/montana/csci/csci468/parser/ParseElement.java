@@ -1,9 +1,12 @@
 package edu.montana.csci.csci468.parser;
 
 import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
+import edu.montana.csci.csci468.bytecode.UnsupportedCompileException;
 import edu.montana.csci.csci468.eval.CatscriptRuntime;
 import edu.montana.csci.csci468.parser.statements.CatScriptProgram;
 import edu.montana.csci.csci468.parser.statements.FunctionDefinitionStatement;
+import edu.montana.csci.csci468.parser.statements.Statement;
+import edu.montana.csci.csci468.parser.expressions.Expression;
 import edu.montana.csci.csci468.tokenizer.Token;
 import org.objectweb.asm.Opcodes;
 
@@ -11,6 +14,7 @@ import java.awt.*;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
 
 import static edu.montana.csci.csci468.bytecode.ByteCodeGenerator.internalNameFor;
 
@@ -21,6 +25,9 @@ public abstract class ParseElement {
     private Token end;
     private List<ParseElement> children;
     private List<ParseError> errors;
+    // the errors the parser added; verify() drops any added after them before validating
+    // again, so a subtree reused by the IncrementalParser can be verified more than once
+    private int parseErrorCount = -1;
 
     public ParseElement() {
         this.errors = new LinkedList<>();
@@ -82,6 +89,41 @@ public abstract class ParseElement {
         return element;
     }
 
+    protected <T extends ParseElement> T replaceChild(ParseElement child, T replacement) {
+        replacement.parent = this;
+        children.set(children.indexOf(child), replacement);
+        return replacement;
+    }
+
+    protected void replaceChildren(List<? extends ParseElement> elements, List<? extends ParseElement> replacements) {
+        if (elements.isEmpty()) {
+            for (ParseElement replacement : replacements) {
+                addChild(replacement);
+            }
+            return;
+        }
+        int index = children.indexOf(elements.get(0));
+        children.removeAll(elements);
+        for (ParseElement replacement : replacements) {
+            replacement.parent = this;
+            children.add(index++, replacement);
+        }
+    }
+
+    protected Expression foldChild(Expression child, ConstantFolder folder) {
+        Expression folded = child.fold(folder);
+        if (folded != child) {
+            replaceChild(child, folded);
+        }
+        return folded;
+    }
+
+    protected List<Statement> foldStatements(List<Statement> statements, ConstantFolder folder) {
+        List<Statement> folded = folder.foldStatements(statements);
+        replaceChildren(statements, folded);
+        return folded;
+    }
+
     public List<ParseElement> getChildren() {
         return children;
     }
@@ -110,19 +152,66 @@ public abstract class ParseElement {
 
 
     public final void verify() {
+        verify(null);
+    }
+
+    /**
+     * Verifies with function bodies validated concurrently on the given pool, or on this
+     * thread if it is null.  Errors are still collected in source order, so the result is
+     * the same as verify().
+     */
+    public final void verify(ForkJoinPool pool) {
+        clearValidationErrors();
         SymbolTable symbolTable = new SymbolTable();
         registerFunctions(symbolTable);
-        validate(symbolTable);
+        if (pool == null) {
+            validate(symbolTable);
+        } else {
+            validate(symbolTable, pool);
+        }
 
         final LinkedList<ParseError> collector = new LinkedList<>();
         collectErrors(collector, this);
         if (collector.size() > 0) {
             throw new ParseErrorException(collector);
         }
+        resolve(new VariableResolver());
     }
 
     public abstract void validate(SymbolTable symbolTable);
 
+    /**
+     * Validates with parts that do not depend on each other handed to the pool.  Only the
+     * program splits its work; everything else validates on the calling thread.
+     */
+    protected void validate(SymbolTable symbolTable, ForkJoinPool pool) {
+        validate(symbolTable);
+    }
+
+    /**
+     * Assigns frame slots to the variables declared and used below this element.  Elements
+     * that declare variables or open scopes override this; everything else just visits its
+     * children in source order.
+     */
+    public void resolve(VariableResolver resolver) {
+        for (ParseElement child : children) {
+            child.resolve(resolver);
+        }
+    }
+
+    private void clearValidationErrors() {
+        if (parseErrorCount < 0) {
+            parseErrorCount = errors.size();
+        } else {
+            while (errors.size() > parseErrorCount) {
+                errors.remove(errors.size() - 1);
+            }
+        }
+        for (ParseElement child : children) {
+            child.clearValidationErrors();
+        }
+    }
+
     private void collectErrors(LinkedList<ParseError> collector, ParseElement parseElement){
         collector.addAll(parseElement.getErrors());
         for (ParseElement child : parseElement.getChildren()) {
@@ -135,7 +224,7 @@ public abstract class ParseElement {
     }
 
     public void compile(ByteCodeGenerator code) {
-        throw new UnsupportedOperationException("compile needs to be implemented for " + this.getClass().getName());
+        throw new UnsupportedCompileException("compile needs to be implemented for " + this.getClass().getName());
     }
 
 
@@ -0,0 +1,213 @@
+package edu.montana.csci.csci468.parser;
+
+import java.util.Arrays;
+
+/**
+ * An immutable map from names to values.  put() returns a new map that shares everything
+ * but the path to the changed entry with the old one, so keeping an old version around is
+ * free.
+ *
+ * It is a hash array mapped trie: each level consumes five bits of the key's hash, and a
+ * node only allocates slots for the children it has.  Every entry keeps its key's hash, so
+ * a lookup only compares strings whose hashes already match.
+ */
+public final class PersistentMap<V> {
+
+    private static final PersistentMap<?> EMPTY = new PersistentMap<>(null, 0);
+
+    private final Node root;
+    private final int size;
+
+    private PersistentMap(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <V> PersistentMap<V> empty() {
+        return (PersistentMap<V>) EMPTY;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean containsKey(String key) {
+        return root != null && root.find(key, hash(key), 0) != null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(String key) {
+        if (root == null) {
+            return null;
+        }
+        Entry entry = root.find(key, hash(key), 0);
+        return entry == null ? null : (V) entry.value;
+    }
+
+    public PersistentMap<V> put(String key, V value) {
+        Entry entry = new Entry(key, hash(key), value);
+        if (root == null) {
+            return new PersistentMap<>(BitmapNode.of(entry, 0), 1);
+        }
+        boolean[] added = new boolean[1];
+        Node newRoot = root.put(entry, 0, added);
+        return new PersistentMap<>(newRoot, added[0] ? size + 1 : size);
+    }
+
+    // spread the high bits down, since identifiers tend to differ only in their last characters
+    private static int hash(String key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private static int bit(int hash, int shift) {
+        return 1 << ((hash >>> shift) & 31);
+    }
+
+    private static final class Entry {
+        final String key;
+        final int hash;
+        final Object value;
+
+        Entry(String key, int hash, Object value) {
+            this.key = key;
+            this.hash = hash;
+            this.value = value;
+        }
+
+        boolean matches(String key, int hash) {
+            return this.hash == hash && this.key.equals(key);
+        }
+    }
+
+    private abstract static class Node {
+        abstract Entry find(String key, int hash, int shift);
+
+        abstract Node put(Entry entry, int shift, boolean[] added);
+    }
+
+    /**
+     * A trie level.  Each set bit of the bitmap has a slot holding either an Entry or the
+     * Node for the next level.
+     */
+    private static final class BitmapNode extends Node {
+        final int bitmap;
+        final Object[] slots;
+
+        BitmapNode(int bitmap, Object[] slots) {
+            this.bitmap = bitmap;
+            this.slots = slots;
+        }
+
+        static BitmapNode of(Entry entry, int shift) {
+            return new BitmapNode(bit(entry.hash, shift), new Object[]{entry});
+        }
+
+        /**
+         * A level holding two children whose hashes differ somewhere at or below this shift.
+         */
+        static Node of(Object first, int firstHash, Object second, int secondHash, int shift) {
+            int firstBit = bit(firstHash, shift);
+            int secondBit = bit(secondHash, shift);
+            if (firstBit == secondBit) {
+                return new BitmapNode(firstBit, new Object[]{of(first, firstHash, second, secondHash, shift + 5)});
+            }
+            Object[] slots = Integer.compareUnsigned(firstBit, secondBit) < 0 ?
+                    new Object[]{first, second} : new Object[]{second, first};
+            return new BitmapNode(firstBit | secondBit, slots);
+        }
+
+        @Override
+        Entry find(String key, int hash, int shift) {
+            int bit = bit(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return null;
+            }
+            Object slot = slots[Integer.bitCount(bitmap & (bit - 1))];
+            if (slot instanceof Entry) {
+                Entry entry = (Entry) slot;
+                return entry.matches(key, hash) ? entry : null;
+            }
+            return ((Node) slot).find(key, hash, shift + 5);
+        }
+
+        @Override
+        Node put(Entry entry, int shift, boolean[] added) {
+            int bit = bit(entry.hash, shift);
+            int index = Integer.bitCount(bitmap & (bit - 1));
+            if ((bitmap & bit) == 0) {
+                Object[] newSlots = new Object[slots.length + 1];
+                System.arraycopy(slots, 0, newSlots, 0, index);
+                newSlots[index] = entry;
+                System.arraycopy(slots, index, newSlots, index + 1, slots.length - index);
+                added[0] = true;
+                return new BitmapNode(bitmap | bit, newSlots);
+            }
+            Object slot = slots[index];
+            Object replacement;
+            if (slot instanceof Entry) {
+                Entry existing = (Entry) slot;
+                if (existing.matches(entry.key, entry.hash)) {
+                    replacement = entry;
+                } else if (existing.hash == entry.hash) {
+                    replacement = new CollisionNode(entry.hash, new Entry[]{existing, entry});
+                    added[0] = true;
+                } else {
+                    replacement = of(existing, existing.hash, entry, entry.hash, shift + 5);
+                    added[0] = true;
+                }
+            } else {
+                replacement = ((Node) slot).put(entry, shift + 5, added);
+            }
+            Object[] newSlots = Arrays.copyOf(slots, slots.length);
+            newSlots[index] = replacement;
+            return new BitmapNode(bitmap, newSlots);
+        }
+    }
+
+    /**
+     * Entries whose keys have the same full hash.
+     */
+    private static final class CollisionNode extends Node {
+        final int hash;
+        final Entry[] entries;
+
+        CollisionNode(int hash, Entry[] entries) {
+            this.hash = hash;
+            this.entries = entries;
+        }
+
+        @Override
+        Entry find(String key, int hash, int shift) {
+            if (hash != this.hash) {
+                return null;
+            }
+            for (Entry entry : entries) {
+                if (entry.key.equals(key)) {
+                    return entry;
+                }
+            }
+            return null;
+        }
+
+        @Override
+        Node put(Entry entry, int shift, boolean[] added) {
+            if (entry.hash != hash) {
+                added[0] = true;
+                return BitmapNode.of(this, hash, entry, entry.hash, shift);
+            }
+            for (int i = 0; i < entries.length; i++) {
+                if (entries[i].key.equals(entry.key)) {
+                    Entry[] newEntries = Arrays.copyOf(entries, entries.length);
+                    newEntries[i] = entry;
+                    return new CollisionNode(hash, newEntries);
+                }
+            }
+            Entry[] newEntries = Arrays.copyOf(entries, entries.length + 1);
+            newEntries[entries.length] = entry;
+            added[0] = true;
+            return new CollisionNode(hash, newEntries);
+        }
+    }
+}
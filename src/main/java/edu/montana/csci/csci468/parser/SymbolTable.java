@@ -7,13 +7,38 @@ import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.Map;
 
+/**
+ * The names visible while validating.
+ *
+ * By default every visible name lives in one PersistentMap: pushScope() remembers the
+ * current version and popScope() goes back to it, a lookup is a single probe however
+ * deeply scopes nest, and snapshot() just shares the current version.  Validation never
+ * registers a name that is already visible, so one map answers lookups exactly as the
+ * stack of scopes does.  A table created with withScopeMaps() keeps the original stack of
+ * name to value maps; it is only kept around for comparison benchmarks.
+ */
 public class SymbolTable {
 
     LinkedList<Map<String, Object>> symbolStack = new LinkedList<>();
 
+    private final boolean persistent;
+    private PersistentMap<Object> symbols = PersistentMap.empty();
+    private final LinkedList<PersistentMap<Object>> enclosingScopes = new LinkedList<>();
+
     public SymbolTable(){
-        HashMap<String, Object> globalScope = new HashMap<>();
-        symbolStack.push(globalScope);
+        this(true);
+    }
+
+    private SymbolTable(boolean persistent) {
+        this.persistent = persistent;
+        if (!persistent) {
+            HashMap<String, Object> globalScope = new HashMap<>();
+            symbolStack.push(globalScope);
+        }
+    }
+
+    public static SymbolTable withScopeMaps() {
+        return new SymbolTable(false);
     }
 
     public boolean hasSymbol(String name) {
@@ -21,6 +46,9 @@ public class SymbolTable {
     }
 
     private Object getSymbol(String name) {
+        if (persistent) {
+            return symbols.get(name);
+        }
         Iterator<Map<String, Object>> mapIterator = symbolStack.descendingIterator();
         while (mapIterator.hasNext()) {
             Map<String, Object> next =  mapIterator.next();
@@ -33,11 +61,19 @@ public class SymbolTable {
     }
 
     public void registerFunction(String name, FunctionDefinitionStatement func) {
-        symbolStack.peek().put(name, func);
+        register(name, func);
     }
 
     public void registerSymbol(String name, CatscriptType type) {
-        symbolStack.peek().put(name, type);
+        register(name, type);
+    }
+
+    private void register(String name, Object symbol) {
+        if (persistent) {
+            symbols = symbols.put(name, symbol);
+        } else {
+            symbolStack.peek().put(name, symbol);
+        }
     }
 
     public CatscriptType getSymbolType(String name) {
@@ -58,11 +94,37 @@ public class SymbolTable {
         }
     }
 
+    /**
+     * A copy of the scopes visible now, for validating a function body on another thread
+     * while this table keeps filling in.  Registrations on either table do not affect the
+     * other.  Sharing the persistent map makes this O(1); the scope maps are copied.
+     */
+    public SymbolTable snapshot() {
+        SymbolTable snapshot = new SymbolTable(persistent);
+        if (persistent) {
+            snapshot.symbols = symbols;
+        } else {
+            snapshot.symbolStack.clear();
+            for (Map<String, Object> scope : symbolStack) {
+                snapshot.symbolStack.add(new HashMap<>(scope));
+            }
+        }
+        return snapshot;
+    }
+
     public void pushScope() {
-        symbolStack.push(new HashMap<>());
+        if (persistent) {
+            enclosingScopes.push(symbols);
+        } else {
+            symbolStack.push(new HashMap<>());
+        }
     }
 
     public void popScope() {
-        symbolStack.pop();
+        if (persistent) {
+            symbols = enclosingScopes.pop();
+        } else {
+            symbolStack.pop();
+        }
     }
 }
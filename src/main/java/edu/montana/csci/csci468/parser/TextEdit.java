@@ -0,0 +1,93 @@
+package edu.montana.csci.csci468.parser;
+
+/**
+ * A single editor change to a source: {@code removedLength} characters at {@code offset}
+ * replaced by {@code insertedText}.
+ */
+public class TextEdit {
+
+    private final int offset;
+    private final int removedLength;
+    private final String insertedText;
+
+    public TextEdit(int offset, int removedLength, String insertedText) {
+        if (offset < 0 || removedLength < 0) {
+            throw new IllegalArgumentException("Bad edit at " + offset + " removing " + removedLength);
+        }
+        this.offset = offset;
+        this.removedLength = removedLength;
+        this.insertedText = insertedText;
+    }
+
+    /**
+     * The smallest edit turning one source into the other, found by trimming their common
+     * prefix and suffix.
+     */
+    public static TextEdit between(CharSequence oldSource, CharSequence newSource) {
+        int prefix = 0;
+        int shorter = Math.min(oldSource.length(), newSource.length());
+        while (prefix < shorter && oldSource.charAt(prefix) == newSource.charAt(prefix)) {
+            prefix++;
+        }
+        int suffix = 0;
+        while (suffix < shorter - prefix &&
+                oldSource.charAt(oldSource.length() - 1 - suffix) == newSource.charAt(newSource.length() - 1 - suffix)) {
+            suffix++;
+        }
+        return new TextEdit(prefix, oldSource.length() - prefix - suffix,
+                newSource.subSequence(prefix, newSource.length() - suffix).toString());
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public int getRemovedLength() {
+        return removedLength;
+    }
+
+    public String getInsertedText() {
+        return insertedText;
+    }
+
+    /**
+     * How far text after the edit moves.
+     */
+    public int getDelta() {
+        return insertedText.length() - removedLength;
+    }
+
+    /**
+     * How many lines text after the edit moves.
+     */
+    public int getLineDelta(CharSequence oldSource) {
+        return countNewLines(insertedText, 0, insertedText.length()) -
+                countNewLines(oldSource, offset, offset + removedLength);
+    }
+
+    public String applyTo(CharSequence source) {
+        if (offset + removedLength > source.length()) {
+            throw new IllegalArgumentException("Edit at " + offset + " runs past the end of the source");
+        }
+        return new StringBuilder(source.length() + getDelta())
+                .append(source, 0, offset)
+                .append(insertedText)
+                .append(source, offset + removedLength, source.length())
+                .toString();
+    }
+
+    private static int countNewLines(CharSequence text, int start, int end) {
+        int count = 0;
+        for (int i = start; i < end; i++) {
+            if (text.charAt(i) == '\n') {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public String toString() {
+        return "TextEdit{offset=" + offset + ", removed=" + removedLength + ", inserted='" + insertedText + "'}";
+    }
+}
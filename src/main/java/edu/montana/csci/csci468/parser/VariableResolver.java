@@ -0,0 +1,90 @@
+package edu.montana.csci.csci468.parser;
+
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.Map;
+
+/**
+ * Runs after a program has verified and gives every variable a (depth, slot) coordinate,
+ * so the interpreter can index into frame arrays instead of looking names up in maps.
+ *
+ * The program and each function get a frame.  if/for blocks only open a lexical scope
+ * inside the enclosing frame: their variables get slots of their own in that frame.  The
+ * depth counts frames outwards from the current one, so 0 is the current function (or the
+ * program) and 1 is the global frame seen from inside a function.
+ */
+public class VariableResolver {
+
+    private final LinkedList<Frame> frames = new LinkedList<>();
+
+    public VariableResolver() {
+        pushFrame();
+    }
+
+    public void pushFrame() {
+        frames.push(new Frame());
+    }
+
+    /**
+     * Closes the current frame, returning the number of slots it needs at runtime.
+     */
+    public int popFrame() {
+        return frames.pop().size;
+    }
+
+    public void pushScope() {
+        frames.peek().scopes.push(new HashMap<>());
+    }
+
+    public void popScope() {
+        frames.peek().scopes.pop();
+    }
+
+    public int declare(String name) {
+        Frame frame = frames.peek();
+        int slot = frame.size++;
+        frame.scopes.peek().put(name, slot);
+        return slot;
+    }
+
+    public Slot resolve(String name) {
+        int depth = 0;
+        for (Frame frame : frames) {
+            for (Map<String, Integer> scope : frame.scopes) {
+                Integer slot = scope.get(name);
+                if (slot != null) {
+                    return new Slot(depth, slot);
+                }
+            }
+            depth++;
+        }
+        return null;
+    }
+
+    public static class Slot {
+        private final int depth;
+        private final int index;
+
+        Slot(int depth, int index) {
+            this.depth = depth;
+            this.index = index;
+        }
+
+        public int getDepth() {
+            return depth;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+    }
+
+    private static class Frame {
+        private final LinkedList<Map<String, Integer>> scopes = new LinkedList<>();
+        private int size;
+
+        Frame() {
+            scopes.push(new HashMap<>());
+        }
+    }
+}
@@ -3,19 +3,34 @@ package edu.montana.csci.csci468.parser.expressions;
 import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
 import edu.montana.csci.csci468.eval.CatscriptRuntime;
 import edu.montana.csci.csci468.parser.CatscriptType;
+import edu.montana.csci.csci468.parser.ConstantFolder;
 import edu.montana.csci.csci468.parser.ErrorType;
 import edu.montana.csci.csci468.parser.ParseError;
 import edu.montana.csci.csci468.parser.SymbolTable;
 import edu.montana.csci.csci468.tokenizer.Token;
 import edu.montana.csci.csci468.tokenizer.TokenType;
+import org.objectweb.asm.Handle;
 import org.objectweb.asm.Opcodes;
+
+import java.util.ArrayList;
+import java.util.List;
+
 import static edu.montana.csci.csci468.bytecode.ByteCodeGenerator.*;
 
 public class AdditiveExpression extends Expression {
 
+    // StringConcatFactory takes at most 200 argument slots
+    private static final int MAX_CONCATENATION_ARGUMENTS = 100;
+
+    private static final Handle MAKE_CONCAT_WITH_CONSTANTS = new Handle(Opcodes.H_INVOKESTATIC,
+            "java/lang/invoke/StringConcatFactory", "makeConcatWithConstants",
+            "(Ljava/lang/invoke/MethodHandles$Lookup;Ljava/lang/String;Ljava/lang/invoke/MethodType;" +
+                    "Ljava/lang/String;[Ljava/lang/Object;)Ljava/lang/invoke/CallSite;", false);
+
     private final Token operator;
-    private final Expression leftHandSide;
-    private final Expression rightHandSide;
+    private Expression leftHandSide;
+    private Expression rightHandSide;
+    private CatscriptType type;
 
     public AdditiveExpression(Token operator, Expression leftHandSide, Expression rightHandSide) {
         this.leftHandSide = addChild(leftHandSide);
@@ -37,6 +52,11 @@ public class AdditiveExpression extends Expression {
     public void validate(SymbolTable symbolTable) {
         leftHandSide.validate(symbolTable);
         rightHandSide.validate(symbolTable);
+        if (leftHandSide.getType().equals(CatscriptType.STRING) || rightHandSide.getType().equals(CatscriptType.STRING)) {
+            type = CatscriptType.STRING;
+        } else {
+            type = CatscriptType.INT;
+        }
         if (getType().equals(CatscriptType.INT)) {
             if (!leftHandSide.getType().equals(CatscriptType.INT)) {
                 leftHandSide.addError(ErrorType.INCOMPATIBLE_TYPES);
@@ -61,11 +81,7 @@ public class AdditiveExpression extends Expression {
 
     @Override
     public CatscriptType getType() {
-        if (leftHandSide.getType().equals(CatscriptType.STRING) || rightHandSide.getType().equals(CatscriptType.STRING)) {
-            return CatscriptType.STRING;
-        } else {
-            return CatscriptType.INT;
-        }
+        return type;
     }
 
     @Override
@@ -73,29 +89,51 @@ public class AdditiveExpression extends Expression {
         return super.toString() + "[" + operator.getStringValue() + "]";
     }
 
+    @Override
+    public Expression fold(ConstantFolder folder) {
+        leftHandSide = foldChild(leftHandSide, folder);
+        rightHandSide = foldChild(rightHandSide, folder);
+        if (folder.isConstant(leftHandSide) && folder.isConstant(rightHandSide)) {
+            return folder.replace(this, evaluate(null));
+        }
+        // with a string on either side + concatenates, and "a" + 0 is not "a"
+        if (type == CatscriptType.INT) {
+            if (folder.isInteger(rightHandSide, 0)) {
+                return folder.simplify(this, leftHandSide);
+            }
+            if (isAdd() && folder.isInteger(leftHandSide, 0)) {
+                return folder.simplify(this, rightHandSide);
+            }
+        }
+        return this;
+    }
+
     //==============================================================
     // Implementation
     //==============================================================
 
     @Override
     public Object evaluate(CatscriptRuntime runtime) {
-        if (getType().equals(CatscriptType.INT)) {
-            Integer lhsValue = (Integer) leftHandSide.evaluate(runtime);
-            Integer rhsValue = (Integer) rightHandSide.evaluate(runtime);
-
-            //TODO handle string case
-            if (isAdd()) {
-                return lhsValue + rhsValue;
-            } else {
-                return lhsValue - rhsValue;
-            }
-        }else {
+        if (type == CatscriptType.INT) {
+            return evaluateInt(runtime);
+        } else {
             Object lhsValue = leftHandSide.evaluate(runtime);
             Object rhsValue = rightHandSide.evaluate(runtime);
             return String.valueOf(lhsValue) + rhsValue;
         }
     }
 
+    @Override
+    public int evaluateInt(CatscriptRuntime runtime) {
+        int lhsValue = leftHandSide.evaluateInt(runtime);
+        int rhsValue = rightHandSide.evaluateInt(runtime);
+        if (isAdd()) {
+            return lhsValue + rhsValue;
+        } else {
+            return lhsValue - rhsValue;
+        }
+    }
+
     @Override
     public void transpile(StringBuilder javascript) {
         getLeftHandSide().transpile(javascript);
@@ -114,6 +152,8 @@ public class AdditiveExpression extends Expression {
             } else {
                 code.addInstruction(Opcodes.ISUB);
             }
+        } else if (code.getOptions().getTargetRelease() >= 11) {
+            compileConcatenation(code);
         } else {
             getLeftHandSide().compile(code);
             box(code, getLeftHandSide().getType());
@@ -128,4 +168,67 @@ public class AdditiveExpression extends Expression {
         }
     }
 
+    /**
+     * Compiles a whole chain of string additions into one invokedynamic call to
+     * StringConcatFactory.  String literals go into the recipe, everything else is passed
+     * as an argument, ints and bools as themselves so they are not boxed and only the result
+     * string is allocated.
+     */
+    private void compileConcatenation(ByteCodeGenerator code) {
+        List<Expression> operands = new ArrayList<>();
+        collectConcatenationOperands(this, operands);
+        StringBuilder recipe = new StringBuilder();
+        StringBuilder descriptor = new StringBuilder("(");
+        int arguments = 0;
+        for (Expression operand : operands) {
+            if (operand instanceof StringLiteralExpression && isRecipeConstant(((StringLiteralExpression) operand).getValue())) {
+                recipe.append(((StringLiteralExpression) operand).getValue());
+            } else {
+                operand.compile(code);
+                recipe.append('\u0001');
+                descriptor.append(concatenationDescriptor(operand.getType()));
+                arguments++;
+            }
+            if (arguments == MAX_CONCATENATION_ARGUMENTS) {
+                // fold what is on the stack so far into one string, which starts the rest
+                emitConcatenation(code, recipe, descriptor);
+                recipe.setLength(0);
+                recipe.append('\u0001');
+                descriptor.setLength(0);
+                descriptor.append("(Ljava/lang/String;");
+                arguments = 1;
+            }
+        }
+        emitConcatenation(code, recipe, descriptor);
+    }
+
+    private static void emitConcatenation(ByteCodeGenerator code, StringBuilder recipe, StringBuilder descriptor) {
+        code.addInvokeDynamicInstruction("makeConcatWithConstants",
+                descriptor + ")Ljava/lang/String;", MAKE_CONCAT_WITH_CONSTANTS, recipe.toString());
+    }
+
+    private static void collectConcatenationOperands(Expression expression, List<Expression> operands) {
+        if (expression instanceof AdditiveExpression && expression.getType().equals(CatscriptType.STRING)) {
+            AdditiveExpression additive = (AdditiveExpression) expression;
+            collectConcatenationOperands(additive.getLeftHandSide(), operands);
+            collectConcatenationOperands(additive.getRightHandSide(), operands);
+        } else {
+            operands.add(expression);
+        }
+    }
+
+    // the recipe marks arguments and constants with \1 and \2
+    private static boolean isRecipeConstant(String value) {
+        return value.indexOf('\u0001') < 0 && value.indexOf('\u0002') < 0;
+    }
+
+    private static String concatenationDescriptor(CatscriptType type) {
+        if (type.equals(CatscriptType.INT)) {
+            return "I";
+        } else if (type.equals(CatscriptType.BOOLEAN)) {
+            return "Z";
+        }
+        // strings are not always typed as such on the JVM, function parameters are Objects
+        return "Ljava/lang/Object;";
+    }
 }
@@ -34,6 +34,11 @@ public class BooleanLiteralExpression extends Expression {
         return booleanValue;
     }
 
+    @Override
+    public boolean evaluateBoolean(CatscriptRuntime runtime) {
+        return booleanValue;
+    }
+
     @Override
     public void transpile(StringBuilder javascript) {
         super.transpile(javascript);
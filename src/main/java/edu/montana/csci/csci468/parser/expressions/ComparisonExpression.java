@@ -3,6 +3,7 @@ package edu.montana.csci.csci468.parser.expressions;
 import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
 import edu.montana.csci.csci468.eval.CatscriptRuntime;
 import edu.montana.csci.csci468.parser.CatscriptType;
+import edu.montana.csci.csci468.parser.ConstantFolder;
 import edu.montana.csci.csci468.parser.ErrorType;
 import edu.montana.csci.csci468.parser.ParseError;
 import edu.montana.csci.csci468.parser.SymbolTable;
@@ -15,8 +16,8 @@ import org.objectweb.asm.Label;
 public class ComparisonExpression extends Expression {
 
     private final Token operator;
-    private final Expression leftHandSide;
-    private final Expression rightHandSide;
+    private Expression leftHandSide;
+    private Expression rightHandSide;
 
     public ComparisonExpression(Token operator, Expression leftHandSide, Expression rightHandSide) {
         this.leftHandSide = addChild(leftHandSide);
@@ -70,22 +71,37 @@ public class ComparisonExpression extends Expression {
         return CatscriptType.BOOLEAN;
     }
 
+    @Override
+    public Expression fold(ConstantFolder folder) {
+        leftHandSide = foldChild(leftHandSide, folder);
+        rightHandSide = foldChild(rightHandSide, folder);
+        if (folder.isConstant(leftHandSide) && folder.isConstant(rightHandSide)) {
+            return folder.replace(this, evaluate(null));
+        }
+        return this;
+    }
+
     // ==============================================================
     // Implementation
     // ==============================================================
 
     @Override
     public Object evaluate(CatscriptRuntime runtime) {
-        Object lhsValue = leftHandSide.evaluate(runtime);
-        Object rhsValue = rightHandSide.evaluate(runtime);
+        return evaluateBoolean(runtime);
+    }
+
+    @Override
+    public boolean evaluateBoolean(CatscriptRuntime runtime) {
+        int lhsValue = leftHandSide.evaluateInt(runtime);
+        int rhsValue = rightHandSide.evaluateInt(runtime);
         if (operator.getType().equals(GREATER)) {
-            return (Integer) lhsValue > (Integer) rhsValue;
+            return lhsValue > rhsValue;
         } else if (operator.getType().equals(GREATER_EQUAL)) {
-            return (Integer) lhsValue >= (Integer) rhsValue;
+            return lhsValue >= rhsValue;
         } else if (operator.getType().equals(LESS)) {
-            return (Integer) lhsValue < (Integer) rhsValue;
+            return lhsValue < rhsValue;
         } else {
-            return (Integer) lhsValue <= (Integer) rhsValue;
+            return lhsValue <= rhsValue;
         }
     }
 
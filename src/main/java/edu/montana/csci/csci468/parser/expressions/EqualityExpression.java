@@ -3,6 +3,7 @@ package edu.montana.csci.csci468.parser.expressions;
 import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
 import edu.montana.csci.csci468.eval.CatscriptRuntime;
 import edu.montana.csci.csci468.parser.CatscriptType;
+import edu.montana.csci.csci468.parser.ConstantFolder;
 import edu.montana.csci.csci468.parser.SymbolTable;
 import edu.montana.csci.csci468.tokenizer.Token;
 import edu.montana.csci.csci468.tokenizer.TokenType;
@@ -10,11 +11,13 @@ import edu.montana.csci.csci468.tokenizer.TokenType;
 import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.Label;
 
+import java.util.Objects;
+
 public class EqualityExpression extends Expression {
 
     private final Token operator;
-    private final Expression leftHandSide;
-    private final Expression rightHandSide;
+    private Expression leftHandSide;
+    private Expression rightHandSide;
 
     public EqualityExpression(Token operator, Expression leftHandSide, Expression rightHandSide) {
         this.leftHandSide = addChild(leftHandSide);
@@ -50,17 +53,37 @@ public class EqualityExpression extends Expression {
         return CatscriptType.BOOLEAN;
     }
 
+    @Override
+    public Expression fold(ConstantFolder folder) {
+        leftHandSide = foldChild(leftHandSide, folder);
+        rightHandSide = foldChild(rightHandSide, folder);
+        if (folder.isConstant(leftHandSide) && folder.isConstant(rightHandSide)) {
+            return folder.replace(this, evaluate(null));
+        }
+        return this;
+    }
+
     // ==============================================================
     // Implementation
     // ==============================================================
 
     @Override
     public Object evaluate(CatscriptRuntime runtime) {
-        if (operator.equals("==")) {
-            return getLeftHandSide() == getRightHandSide();
+        return evaluateBoolean(runtime);
+    }
+
+    @Override
+    public boolean evaluateBoolean(CatscriptRuntime runtime) {
+        boolean equal;
+        CatscriptType lhsType = leftHandSide.getType();
+        if (lhsType.equals(CatscriptType.INT) && rightHandSide.getType().equals(CatscriptType.INT)) {
+            equal = leftHandSide.evaluateInt(runtime) == rightHandSide.evaluateInt(runtime);
+        } else if (lhsType.equals(CatscriptType.BOOLEAN) && rightHandSide.getType().equals(CatscriptType.BOOLEAN)) {
+            equal = leftHandSide.evaluateBoolean(runtime) == rightHandSide.evaluateBoolean(runtime);
         } else {
-            return getLeftHandSide() != getRightHandSide();
+            equal = Objects.equals(leftHandSide.evaluate(runtime), rightHandSide.evaluate(runtime));
         }
+        return isEqual() == equal;
     }
 
     @Override
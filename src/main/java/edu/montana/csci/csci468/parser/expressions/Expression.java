@@ -1,8 +1,10 @@
 package edu.montana.csci.csci468.parser.expressions;
 
 import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
+import edu.montana.csci.csci468.bytecode.UnsupportedCompileException;
 import edu.montana.csci.csci468.eval.CatscriptRuntime;
 import edu.montana.csci.csci468.parser.CatscriptType;
+import edu.montana.csci.csci468.parser.ConstantFolder;
 import edu.montana.csci.csci468.parser.ParseElement;
 
 public abstract class Expression extends ParseElement {
@@ -11,6 +13,29 @@ public abstract class Expression extends ParseElement {
         throw new UnsupportedOperationException("evaluate needs to be implemented for " + this.getClass().getName());
     }
 
+    /**
+     * Evaluates an expression whose verified type is INT without boxing the result.
+     * Arithmetic nodes override this so a whole chain of them runs on primitives.
+     */
+    public int evaluateInt(CatscriptRuntime runtime) {
+        return (Integer) evaluate(runtime);
+    }
+
+    /**
+     * Evaluates an expression whose verified type is BOOLEAN without boxing the result.
+     */
+    public boolean evaluateBoolean(CatscriptRuntime runtime) {
+        return (Boolean) evaluate(runtime);
+    }
+
+    /**
+     * Folds the constant parts of this expression, returning the expression that should
+     * take its place in the tree (this, if nothing could be folded).
+     */
+    public Expression fold(ConstantFolder folder) {
+        return this;
+    }
+
     @Override
     public void transpile(StringBuilder javascript) {
         throw new UnsupportedOperationException("transpile needs to be implemented for " + this.getClass().getName());
@@ -18,7 +43,7 @@ public abstract class Expression extends ParseElement {
 
     @Override
     public void compile(ByteCodeGenerator code) {
-        throw new UnsupportedOperationException("compile needs to be implemented for " + this.getClass().getName());
+        throw new UnsupportedCompileException("compile needs to be implemented for " + this.getClass().getName());
     }
 
     public abstract CatscriptType getType();
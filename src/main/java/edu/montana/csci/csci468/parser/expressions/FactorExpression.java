@@ -3,6 +3,7 @@ package edu.montana.csci.csci468.parser.expressions;
 import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
 import edu.montana.csci.csci468.eval.CatscriptRuntime;
 import edu.montana.csci.csci468.parser.CatscriptType;
+import edu.montana.csci.csci468.parser.ConstantFolder;
 import edu.montana.csci.csci468.parser.ErrorType;
 import edu.montana.csci.csci468.parser.ParseError;
 import edu.montana.csci.csci468.parser.SymbolTable;
@@ -13,8 +14,8 @@ import org.objectweb.asm.Opcodes;
 public class FactorExpression extends Expression {
 
     private final Token operator;
-    private final Expression leftHandSide;
-    private final Expression rightHandSide;
+    private Expression leftHandSide;
+    private Expression rightHandSide;
 
     public FactorExpression(Token operator, Expression leftHandSide, Expression rightHandSide) {
         this.leftHandSide = addChild(leftHandSide);
@@ -56,19 +57,48 @@ public class FactorExpression extends Expression {
         return CatscriptType.INT;
     }
 
+    @Override
+    public Expression fold(ConstantFolder folder) {
+        leftHandSide = foldChild(leftHandSide, folder);
+        rightHandSide = foldChild(rightHandSide, folder);
+        if (!isMultiply() && rightHandSide instanceof IntegerLiteralExpression &&
+                ((IntegerLiteralExpression) rightHandSide).getValue() == 0) {
+            return this; // leave division by zero to fail at runtime
+        }
+        if (folder.isConstant(leftHandSide) && folder.isConstant(rightHandSide)) {
+            return folder.replace(this, evaluate(null));
+        }
+        if (folder.isInteger(rightHandSide, 1)) {
+            return folder.simplify(this, leftHandSide);
+        }
+        if (isMultiply() && folder.isInteger(leftHandSide, 1)) {
+            return folder.simplify(this, rightHandSide);
+        }
+        if (isMultiply() && (folder.isInteger(rightHandSide, 0) && folder.isDroppable(leftHandSide) ||
+                folder.isInteger(leftHandSide, 0) && folder.isDroppable(rightHandSide))) {
+            return folder.replace(this, 0);
+        }
+        return this;
+    }
+
     //==============================================================
     // Implementation
     //==============================================================
 
     @Override
     public Object evaluate(CatscriptRuntime runtime) {
-        Object rhsValue = rightHandSide.evaluate(runtime);
-        Object lhsValue = leftHandSide.evaluate(runtime);
+        return evaluateInt(runtime);
+    }
+
+    @Override
+    public int evaluateInt(CatscriptRuntime runtime) {
+        int lhsValue = leftHandSide.evaluateInt(runtime);
+        int rhsValue = rightHandSide.evaluateInt(runtime);
         if (operator.getType().equals(TokenType.STAR)) {
-            return  (Integer) lhsValue * (Integer) rhsValue;
+            return lhsValue * rhsValue;
         }
         else {
-            return (Integer) lhsValue / (Integer) rhsValue;
+            return lhsValue / rhsValue;
         }
     }
 
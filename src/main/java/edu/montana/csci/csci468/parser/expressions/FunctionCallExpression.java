@@ -3,6 +3,7 @@ package edu.montana.csci.csci468.parser.expressions;
 import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
 import edu.montana.csci.csci468.eval.CatscriptRuntime;
 import edu.montana.csci.csci468.parser.CatscriptType;
+import edu.montana.csci.csci468.parser.ConstantFolder;
 import edu.montana.csci.csci468.parser.ErrorType;
 import edu.montana.csci.csci468.parser.ParseError;
 import edu.montana.csci.csci468.parser.SymbolTable;
@@ -12,6 +13,7 @@ import org.objectweb.asm.Opcodes;
 import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.ListIterator;
 
 public class FunctionCallExpression extends Expression {
     private final String name;
@@ -62,6 +64,15 @@ public class FunctionCallExpression extends Expression {
         }
     }
 
+    @Override
+    public Expression fold(ConstantFolder folder) {
+        ListIterator<Expression> iterator = arguments.listIterator();
+        while (iterator.hasNext()) {
+            iterator.set(foldChild(iterator.next(), folder));
+        }
+        return this;
+    }
+
     // ==============================================================
     // Implementation
     // ==============================================================
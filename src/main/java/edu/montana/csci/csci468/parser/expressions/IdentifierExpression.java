@@ -6,12 +6,15 @@ import edu.montana.csci.csci468.parser.CatscriptType;
 import edu.montana.csci.csci468.parser.ErrorType;
 import edu.montana.csci.csci468.parser.ParseError;
 import edu.montana.csci.csci468.parser.SymbolTable;
+import edu.montana.csci.csci468.parser.VariableResolver;
 import org.objectweb.asm.Opcodes;
 import static edu.montana.csci.csci468.bytecode.ByteCodeGenerator.internalNameFor;
 
 public class IdentifierExpression extends Expression {
     private final String name;
     private CatscriptType type;
+    private int depth;
+    private int slot = -1;
 
     public IdentifierExpression(String value) {
         this.name = value;
@@ -36,13 +39,22 @@ public class IdentifierExpression extends Expression {
         }
     }
 
+    @Override
+    public void resolve(VariableResolver resolver) {
+        VariableResolver.Slot resolved = resolver.resolve(name);
+        if (resolved != null) {
+            depth = resolved.getDepth();
+            slot = resolved.getIndex();
+        }
+    }
+
     //==============================================================
     // Implementation
     //==============================================================
 
     @Override
     public Object evaluate(CatscriptRuntime runtime) {
-        return runtime.getValue(name);
+        return runtime.getValue(name, depth, slot);
     }
 
     @Override
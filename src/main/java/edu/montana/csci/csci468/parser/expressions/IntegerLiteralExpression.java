@@ -12,6 +12,10 @@ public class IntegerLiteralExpression extends Expression {
         this.integerVal = Integer.parseInt(value);
     }
 
+    public IntegerLiteralExpression(int value) {
+        this.integerVal = value;
+    }
+
     public int getValue() {
         return integerVal;
     }
@@ -38,6 +42,11 @@ public class IntegerLiteralExpression extends Expression {
         return integerVal;
     }
 
+    @Override
+    public int evaluateInt(CatscriptRuntime runtime) {
+        return integerVal;
+    }
+
     @Override
     public void transpile(StringBuilder javascript) {
         javascript.append(integerVal);
@@ -1,14 +1,18 @@
 package edu.montana.csci.csci468.parser.expressions;
 
 import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
+import edu.montana.csci.csci468.eval.BoolList;
 import edu.montana.csci.csci468.eval.CatscriptRuntime;
+import edu.montana.csci.csci468.eval.IntList;
 import edu.montana.csci.csci468.parser.CatscriptType;
+import edu.montana.csci.csci468.parser.ConstantFolder;
 import edu.montana.csci.csci468.parser.SymbolTable;
 import org.objectweb.asm.Opcodes;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.ListIterator;
 
 public class ListLiteralExpression extends Expression {
     List<Expression> values;
@@ -47,18 +51,59 @@ public class ListLiteralExpression extends Expression {
         return type;
     }
 
+    /**
+     * INT or BOOLEAN when every value is statically that primitive type, in which case the
+     * list is built as an IntList or BoolList; null otherwise.  A list<int> literal holding a
+     * null value stays a regular list.
+     */
+    private CatscriptType getPrimitiveComponentType() {
+        CatscriptType componentType = ((CatscriptType.ListType) type).getComponentType();
+        if (!componentType.equals(CatscriptType.INT) && !componentType.equals(CatscriptType.BOOLEAN)) {
+            return null;
+        }
+        for (Expression value : values) {
+            if (!componentType.equals(value.getType())) {
+                return null;
+            }
+        }
+        return componentType;
+    }
+
+    @Override
+    public Expression fold(ConstantFolder folder) {
+        ListIterator<Expression> iterator = values.listIterator();
+        while (iterator.hasNext()) {
+            iterator.set(foldChild(iterator.next(), folder));
+        }
+        return this;
+    }
+
     //==============================================================
     // Implementation
     //==============================================================
 
     @Override
     public Object evaluate(CatscriptRuntime runtime) {
-        //return super.evaluate(runtime);
-        List<Object> evaluatedList = new ArrayList<>();
+        CatscriptType primitiveType = getPrimitiveComponentType();
+        if (CatscriptType.INT.equals(primitiveType)) {
+            IntList ints = new IntList(values.size());
+            for (Expression value : values) {
+                ints.addInt(value.evaluateInt(runtime));
+            }
+            return ints;
+        } else if (CatscriptType.BOOLEAN.equals(primitiveType)) {
+            BoolList bools = new BoolList(values.size());
+            for (Expression value : values) {
+                bools.addBoolean(value.evaluateBoolean(runtime));
+            }
+            return bools;
+        }
+        Object[] evaluatedValues = new Object[values.size()];
+        int i = 0;
         for (Expression value : values) {
-            evaluatedList.add(value.evaluate(runtime));
+            evaluatedValues[i++] = value.evaluate(runtime);
         }
-        return evaluatedList;
+        return Arrays.asList(evaluatedValues);
     }
 
     @Override
@@ -68,20 +113,41 @@ public class ListLiteralExpression extends Expression {
 
     @Override
     public void compile(ByteCodeGenerator code) {
-        code.addTypeInstruction(Opcodes.NEW, ByteCodeGenerator.internalNameFor(LinkedList.class));
-        code.addInstruction(Opcodes.DUP);
-        code.addMethodInstruction(Opcodes.INVOKESPECIAL, ByteCodeGenerator.internalNameFor(LinkedList.class), "<init>", "()V");
+        // metered programs pay for what they allocate
+        if (!values.isEmpty()) {
+            code.addMeteringCharge(values.size());
+        }
+        CatscriptType primitiveType = getPrimitiveComponentType();
+        if (primitiveType != null) {
+            compilePrimitiveList(code, primitiveType);
+            return;
+        }
+        // a presized array wrapped by Arrays.asList(); List.of() would reject null values
+        code.pushConstantOntoStack(values.size());
+        code.addTypeInstruction(Opcodes.ANEWARRAY, ByteCodeGenerator.internalNameFor(Object.class));
+        int i = 0;
         for (Expression value : values) {
             code.addInstruction(Opcodes.DUP);
+            code.pushConstantOntoStack(i++);
             value.compile(code);
             box(code, value.getType());
-            code.addMethodInstruction(Opcodes.INVOKEVIRTUAL, ByteCodeGenerator.internalNameFor(LinkedList.class), "add", "(Ljava/lang/Object;)Z" );
-            code.addInstruction(Opcodes.POP);
+            code.addInstruction(Opcodes.AASTORE);
         }
-
-
+        code.addMethodInstruction(Opcodes.INVOKESTATIC, ByteCodeGenerator.internalNameFor(Arrays.class), "asList",
+                "([Ljava/lang/Object;)Ljava/util/List;");
     }
 
-
-
+    private void compilePrimitiveList(ByteCodeGenerator code, CatscriptType primitiveType) {
+        boolean ints = primitiveType.equals(CatscriptType.INT);
+        String listClass = ByteCodeGenerator.internalNameFor(ints ? IntList.class : BoolList.class);
+        code.addTypeInstruction(Opcodes.NEW, listClass);
+        code.addInstruction(Opcodes.DUP);
+        code.pushConstantOntoStack(values.size());
+        code.addMethodInstruction(Opcodes.INVOKESPECIAL, listClass, "<init>", "(I)V");
+        for (Expression value : values) {
+            code.addInstruction(Opcodes.DUP);
+            value.compile(code);
+            code.addMethodInstruction(Opcodes.INVOKEVIRTUAL, listClass, ints ? "addInt" : "addBoolean", ints ? "(I)V" : "(Z)V");
+        }
+    }
 }
@@ -3,13 +3,14 @@ package edu.montana.csci.csci468.parser.expressions;
 import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
 import edu.montana.csci.csci468.eval.CatscriptRuntime;
 import edu.montana.csci.csci468.parser.CatscriptType;
+import edu.montana.csci.csci468.parser.ConstantFolder;
 import edu.montana.csci.csci468.parser.ParseError;
 import edu.montana.csci.csci468.parser.SymbolTable;
 import edu.montana.csci.csci468.tokenizer.TokenType;
 
 public class ParenthesizedExpression extends Expression {
 
-    private final Expression expression;
+    private Expression expression;
 
     public ParenthesizedExpression(Expression expression) {
         this.expression = addChild(expression);
@@ -29,6 +30,15 @@ public class ParenthesizedExpression extends Expression {
         return expression.getType();
     }
 
+    @Override
+    public Expression fold(ConstantFolder folder) {
+        expression = foldChild(expression, folder);
+        if (folder.isConstant(expression)) {
+            return folder.replace(this, expression.evaluate(null));
+        }
+        return this;
+    }
+
     //==============================================================
     // Implementation
     //==============================================================
@@ -38,6 +48,16 @@ public class ParenthesizedExpression extends Expression {
         return expression.evaluate(runtime);
     }
 
+    @Override
+    public int evaluateInt(CatscriptRuntime runtime) {
+        return expression.evaluateInt(runtime);
+    }
+
+    @Override
+    public boolean evaluateBoolean(CatscriptRuntime runtime) {
+        return expression.evaluateBoolean(runtime);
+    }
+
     @Override
     public void transpile(StringBuilder javascript) {
         javascript.append("(");
@@ -3,6 +3,7 @@ package edu.montana.csci.csci468.parser.expressions;
 import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
 import edu.montana.csci.csci468.eval.CatscriptRuntime;
 import edu.montana.csci.csci468.parser.CatscriptType;
+import edu.montana.csci.csci468.parser.ConstantFolder;
 import edu.montana.csci.csci468.parser.ErrorType;
 import edu.montana.csci.csci468.parser.ParseError;
 import edu.montana.csci.csci468.parser.SymbolTable;
@@ -14,7 +15,7 @@ import org.objectweb.asm.Opcodes;
 public class UnaryExpression extends Expression {
 
     private final Token operator;
-    private final Expression rightHandSide;
+    private Expression rightHandSide;
 
     public UnaryExpression(Token operator, Expression rightHandSide) {
         this.rightHandSide = addChild(rightHandSide);
@@ -57,20 +58,42 @@ public class UnaryExpression extends Expression {
         }
     }
 
+    @Override
+    public Expression fold(ConstantFolder folder) {
+        rightHandSide = foldChild(rightHandSide, folder);
+        if (folder.isConstant(rightHandSide)) {
+            return folder.replace(this, evaluate(null));
+        }
+        if (rightHandSide instanceof UnaryExpression &&
+                ((UnaryExpression) rightHandSide).isMinus() == isMinus()) {
+            return folder.simplify(this, ((UnaryExpression) rightHandSide).getRightHandSide());
+        }
+        return this;
+    }
+
     // ==============================================================
     // Implementation
     // ==============================================================
 
     @Override
     public Object evaluate(CatscriptRuntime runtime) {
-        Object rhsValue = getRightHandSide().evaluate(runtime);
         if (this.isMinus()) {
-            return -1 * (Integer) rhsValue;
+            return evaluateInt(runtime);
         } else {
-            return !(Boolean) rhsValue;
+            return evaluateBoolean(runtime);
         }
     }
 
+    @Override
+    public int evaluateInt(CatscriptRuntime runtime) {
+        return -rightHandSide.evaluateInt(runtime);
+    }
+
+    @Override
+    public boolean evaluateBoolean(CatscriptRuntime runtime) {
+        return !rightHandSide.evaluateBoolean(runtime);
+    }
+
     @Override
     public void transpile(StringBuilder javascript) {
         super.transpile(javascript);
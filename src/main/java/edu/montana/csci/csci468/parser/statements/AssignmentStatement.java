@@ -3,14 +3,18 @@ package edu.montana.csci.csci468.parser.statements;
 import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
 import edu.montana.csci.csci468.eval.CatscriptRuntime;
 import edu.montana.csci.csci468.parser.CatscriptType;
+import edu.montana.csci.csci468.parser.ConstantFolder;
 import edu.montana.csci.csci468.parser.ErrorType;
 import edu.montana.csci.csci468.parser.ParseError;
 import edu.montana.csci.csci468.parser.SymbolTable;
+import edu.montana.csci.csci468.parser.VariableResolver;
 import edu.montana.csci.csci468.parser.expressions.Expression;
 
 public class AssignmentStatement extends Statement {
     private Expression expression;
     private String variableName;
+    private int depth;
+    private int slot = -1;
 
     public Expression getExpression() {
         return expression;
@@ -39,12 +43,27 @@ public class AssignmentStatement extends Statement {
         }
     }
 
+    @Override
+    public void resolve(VariableResolver resolver) {
+        expression.resolve(resolver);
+        VariableResolver.Slot resolved = resolver.resolve(variableName);
+        if (resolved != null) {
+            depth = resolved.getDepth();
+            slot = resolved.getIndex();
+        }
+    }
+
+    @Override
+    public void fold(ConstantFolder folder) {
+        expression = foldChild(expression, folder);
+    }
+
     //==============================================================
     // Implementation
     //==============================================================
     @Override
     public void execute(CatscriptRuntime runtime) {
-        super.execute(runtime);
+        runtime.setValue(variableName, depth, slot, expression.evaluate(runtime));
     }
 
     @Override
@@ -2,31 +2,53 @@ package edu.montana.csci.csci468.parser.statements;
 
 import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
 import edu.montana.csci.csci468.eval.CatscriptRuntime;
+import edu.montana.csci.csci468.eval.ExecutionBudget;
+import edu.montana.csci.csci468.eval.OutputSink;
+import edu.montana.csci.csci468.eval.StringOutputSink;
 import edu.montana.csci.csci468.parser.CatscriptType;
+import edu.montana.csci.csci468.parser.ConstantFolder;
 import edu.montana.csci.csci468.parser.SymbolTable;
+import edu.montana.csci.csci468.parser.VariableResolver;
 import edu.montana.csci.csci468.parser.expressions.Expression;
+import edu.montana.csci.csci468.tokenizer.CatScriptTokenizer;
 import org.objectweb.asm.Opcodes;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 import static edu.montana.csci.csci468.bytecode.ByteCodeGenerator.internalNameFor;
 
 public class CatScriptProgram extends Statement {
 
-    private StringBuffer output = new StringBuffer();
+    private OutputSink output = new StringOutputSink();
     private List<Statement> statements = new LinkedList<>();
     private Map<String, FunctionDefinitionStatement> functions = new HashMap<>();
     private Expression expression;
+    private int frameSize;
+    private CatScriptTokenizer tokenizer;
 
     public void print(Object v) {
-        output.append(v).append("\n");
+        output.print(v);
     }
 
+    /**
+     * What execute() printed, if this program's sink keeps its output.
+     */
     public String getOutput(){
-        return output.toString();
+        return output.getOutput();
+    }
+
+    public OutputSink getOutputSink() {
+        return output;
+    }
+
+    public void setOutputSink(OutputSink output) {
+        this.output = output;
     }
 
     public void addStatement(Statement child) {
@@ -38,6 +60,18 @@ public class CatScriptProgram extends Statement {
         }
     }
 
+    public CatScriptTokenizer getTokenizer() {
+        return tokenizer;
+    }
+
+    public void setTokenizer(CatScriptTokenizer tokenizer) {
+        this.tokenizer = tokenizer;
+    }
+
+    public CharSequence getSource() {
+        return tokenizer.getSource();
+    }
+
     public void setExpression(Expression expression) {
         this.expression = addChild(expression);
     }
@@ -69,8 +103,80 @@ public class CatScriptProgram extends Statement {
         }
     }
 
+    /**
+     * Validates each function body as its own task.  A body sees a snapshot of the globals
+     * declared before the function, just as it would validating in order; top level
+     * statements keep validating here meanwhile, and only ever add to the live table.
+     */
+    @Override
+    protected void validate(SymbolTable symbolTable, ForkJoinPool pool) {
+        if (expression != null) {
+            expression.validate(symbolTable);
+            return;
+        }
+        List<ForkJoinTask<?>> bodies = new ArrayList<>();
+        for (Statement statement : statements) {
+            if (statement instanceof FunctionDefinitionStatement) {
+                SymbolTable snapshot = symbolTable.snapshot();
+                bodies.add(pool.submit(() -> statement.validate(snapshot)));
+            } else {
+                statement.validate(symbolTable);
+            }
+        }
+        for (ForkJoinTask<?> body : bodies) {
+            body.join();
+        }
+    }
+
+    @Override
+    public void resolve(VariableResolver resolver) {
+        resolver.pushFrame();
+        super.resolve(resolver);
+        frameSize = resolver.popFrame();
+    }
+
+    @Override
+    public void fold(ConstantFolder folder) {
+        if (expression != null) {
+            expression = foldChild(expression, folder);
+        } else {
+            // top level statements are folded in place rather than spliced, so each one
+            // keeps its source span for the IncrementalParser
+            for (Statement statement : statements) {
+                statement.fold(folder);
+            }
+        }
+    }
+
+    /**
+     * Folds constant expressions and drops if branches that can never run.  Call it after
+     * verify(); returns the number of parse nodes removed.
+     */
+    public int optimize() {
+        ConstantFolder folder = new ConstantFolder();
+        fold(folder);
+        return folder.getRemovedNodes();
+    }
+
     public void execute() {
-        execute(new CatscriptRuntime());
+        execute(new CatscriptRuntime(output));
+    }
+
+    /**
+     * Runs the program printing to the given sink.  All the state of the run lives in its
+     * runtime, so once a program is verified any number of threads can execute it at once,
+     * each with its own sink.
+     */
+    public void execute(OutputSink output) {
+        execute(output, ExecutionBudget.unlimited());
+    }
+
+    /**
+     * Runs the program printing to the given sink, ending it with an
+     * ExecutionCancelledException if it runs past the budget.
+     */
+    public void execute(OutputSink output, ExecutionBudget budget) {
+        execute(new CatscriptRuntime(output, budget));
     }
 
     //==============================================================
@@ -78,8 +184,9 @@ public class CatScriptProgram extends Statement {
     //==============================================================
     @Override
     public void execute(CatscriptRuntime runtime) {
+        runtime.pushFrame(frameSize);
         if (expression != null) {
-            print(expression.evaluate(runtime));
+            runtime.print(expression.evaluate(runtime));
         } else {
             for (Statement statement : statements) {
                 statement.execute(runtime);
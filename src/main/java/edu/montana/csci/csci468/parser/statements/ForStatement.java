@@ -1,11 +1,15 @@
 package edu.montana.csci.csci468.parser.statements;
 
 import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
+import edu.montana.csci.csci468.eval.BoolList;
 import edu.montana.csci.csci468.eval.CatscriptRuntime;
+import edu.montana.csci.csci468.eval.IntList;
 import edu.montana.csci.csci468.parser.CatscriptType;
+import edu.montana.csci.csci468.parser.ConstantFolder;
 import edu.montana.csci.csci468.parser.ErrorType;
 import edu.montana.csci.csci468.parser.ParseError;
 import edu.montana.csci.csci468.parser.SymbolTable;
+import edu.montana.csci.csci468.parser.VariableResolver;
 import edu.montana.csci.csci468.parser.expressions.Expression;
 import org.objectweb.asm.Label;
 import org.objectweb.asm.Opcodes;
@@ -19,6 +23,7 @@ public class ForStatement extends Statement {
     private Expression expression;
     private String variableName;
     private List<Statement> body;
+    private int variableSlot;
 
     public void setExpression(Expression expression) {
         this.expression = addChild(expression);
@@ -68,23 +73,72 @@ public class ForStatement extends Statement {
         symbolTable.popScope();
     }
 
+    @Override
+    public void resolve(VariableResolver resolver) {
+        expression.resolve(resolver);
+        resolver.pushScope();
+        variableSlot = resolver.declare(variableName);
+        for (Statement statement : body) {
+            statement.resolve(resolver);
+        }
+        resolver.popScope();
+    }
+
     private CatscriptType getComponentType() {
         return ((CatscriptType.ListType) expression.getType()).getComponentType();
     }
 
+    @Override
+    public void fold(ConstantFolder folder) {
+        expression = foldChild(expression, folder);
+        body = foldStatements(body, folder);
+    }
+
     // ==============================================================
     // Implementation
     // ==============================================================
     @Override
     public void execute(CatscriptRuntime runtime) {
-        for (Object loopVar : (List<Object>) expression.evaluate(runtime)) {
-            runtime.setValue(variableName, loopVar);
-            for (Statement statement : body) {
-                statement.execute(runtime);
+        List<Object> list = (List<Object>) expression.evaluate(runtime);
+        CatscriptType componentType = getComponentType();
+        // of() gives null for a list holding null, which is then iterated boxed below
+        IntList ints = componentType.equals(CatscriptType.INT) ? IntList.of(list) : null;
+        BoolList bools = componentType.equals(CatscriptType.BOOLEAN) ? BoolList.of(list) : null;
+        if (ints != null) {
+            int[] elements = ints.getElements();
+            for (int i = 0, size = ints.size(); i < size; i++) {
+                if (executeBody(runtime, elements[i])) {
+                    return;
+                }
+            }
+        } else if (bools != null) {
+            for (int i = 0, size = bools.size(); i < size; i++) {
+                if (executeBody(runtime, bools.getBoolean(i))) {
+                    return;
+                }
+            }
+        } else {
+            for (Object loopVar : list) {
+                if (executeBody(runtime, loopVar)) {
+                    return;
+                }
             }
         }
     }
 
+    // true when the body returned out of the enclosing function
+    private boolean executeBody(CatscriptRuntime runtime, Object loopVar) {
+        runtime.checkBudget();
+        runtime.setValue(variableName, 0, variableSlot, loopVar);
+        for (Statement statement : body) {
+            statement.execute(runtime);
+            if (runtime.isReturning()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @Override
     public void transpile(StringBuilder javascript) {
         super.transpile(javascript);
@@ -92,6 +146,11 @@ public class ForStatement extends Statement {
 
     @Override
     public void compile(ByteCodeGenerator code) {
+        CatscriptType componentType = getComponentType();
+        if (componentType.equals(CatscriptType.INT) || componentType.equals(CatscriptType.BOOLEAN)) {
+            compileIndexed(code, componentType);
+            return;
+        }
         Integer iterSlot = code.nextLocalStorageSlot();
         Label iterLbl = new Label();
         Label returnLbL = new Label();
@@ -105,7 +164,6 @@ public class ForStatement extends Statement {
         code.addMethodInstruction(Opcodes.INVOKEINTERFACE, internalNameFor(Iterator.class), "hasNext",
                 "()Z");
         code.addJumpInstruction(Opcodes.IFEQ, returnLbL);
-        CatscriptType componentType = getComponentType();
         code.addVarInstruction(Opcodes.ALOAD, iterSlot);
         code.addMethodInstruction(Opcodes.INVOKEINTERFACE, internalNameFor(Iterator.class), "next",
                 "()Ljava/lang/Object;");
@@ -120,8 +178,79 @@ public class ForStatement extends Statement {
         for (Statement statement : body) {
             statement.compile(code);
         }
+        code.addBudgetCheck();
         code.addJumpInstruction(Opcodes.GOTO, iterLbl);
         code.addLabel(returnLbL);
     }
 
+    /**
+     * Loops over a list<int> or list<bool> by index, reading the ints straight out of the
+     * IntList's array and the bools through BoolList.getBoolean(), so nothing is boxed.
+     * A list of the static type that is not one of these is copied into one first, unless
+     * it holds a null; then each element is read with List.get() and unboxed instead, which
+     * throws when it reaches the null, as the iterator loop always did.
+     */
+    private void compileIndexed(ByteCodeGenerator code, CatscriptType componentType) {
+        boolean ints = componentType.equals(CatscriptType.INT);
+        String listClass = internalNameFor(ints ? IntList.class : BoolList.class);
+        String boxClass = internalNameFor(ints ? Integer.class : Boolean.class);
+        Integer listSlot = code.nextLocalStorageSlot();
+        Integer valuesSlot = code.nextLocalStorageSlot();
+        Integer sizeSlot = code.nextLocalStorageSlot();
+        Integer indexSlot = code.nextLocalStorageSlot();
+        Label loopLbl = new Label();
+        Label boxedLbl = new Label();
+        Label loadedLbl = new Label();
+        Label endLbl = new Label();
+
+        expression.compile(code);
+        code.addInstruction(Opcodes.DUP);
+        code.addVarInstruction(Opcodes.ASTORE, listSlot);
+        code.addInstruction(Opcodes.DUP);
+        code.addMethodInstruction(Opcodes.INVOKEINTERFACE, internalNameFor(List.class), "size", "()I");
+        code.addVarInstruction(Opcodes.ISTORE, sizeSlot);
+        code.addMethodInstruction(Opcodes.INVOKESTATIC, listClass, "of",
+                "(Ljava/util/List;)L" + listClass + ";");
+        if (ints) {
+            Label noArrayLbl = new Label();
+            code.addInstruction(Opcodes.DUP);
+            code.addJumpInstruction(Opcodes.IFNULL, noArrayLbl);
+            code.addMethodInstruction(Opcodes.INVOKEVIRTUAL, listClass, "getElements", "()[I");
+            code.addLabel(noArrayLbl);
+            code.addTypeInstruction(Opcodes.CHECKCAST, "[I");
+        }
+        code.addVarInstruction(Opcodes.ASTORE, valuesSlot);
+        code.addInstruction(Opcodes.ICONST_0);
+        code.addVarInstruction(Opcodes.ISTORE, indexSlot);
+
+        code.addLabel(loopLbl);
+        code.addVarInstruction(Opcodes.ILOAD, indexSlot);
+        code.addVarInstruction(Opcodes.ILOAD, sizeSlot);
+        code.addJumpInstruction(Opcodes.IF_ICMPGE, endLbl);
+        code.addVarInstruction(Opcodes.ALOAD, valuesSlot);
+        code.addJumpInstruction(Opcodes.IFNULL, boxedLbl);
+        code.addVarInstruction(Opcodes.ALOAD, valuesSlot);
+        code.addVarInstruction(Opcodes.ILOAD, indexSlot);
+        if (ints) {
+            code.addInstruction(Opcodes.IALOAD);
+        } else {
+            code.addMethodInstruction(Opcodes.INVOKEVIRTUAL, listClass, "getBoolean", "(I)Z");
+        }
+        code.addJumpInstruction(Opcodes.GOTO, loadedLbl);
+        code.addLabel(boxedLbl);
+        code.addVarInstruction(Opcodes.ALOAD, listSlot);
+        code.addVarInstruction(Opcodes.ILOAD, indexSlot);
+        code.addMethodInstruction(Opcodes.INVOKEINTERFACE, internalNameFor(List.class), "get", "(I)Ljava/lang/Object;");
+        code.addTypeInstruction(Opcodes.CHECKCAST, boxClass);
+        code.addMethodInstruction(Opcodes.INVOKEVIRTUAL, boxClass, ints ? "intValue" : "booleanValue", ints ? "()I" : "()Z");
+        code.addLabel(loadedLbl);
+        code.addVarInstruction(Opcodes.ISTORE, code.createLocalStorageSlotFor(variableName));
+        code.addIincInstruction(indexSlot, 1);
+        for (Statement statement : body) {
+            statement.compile(code);
+        }
+        code.addBudgetCheck();
+        code.addJumpInstruction(Opcodes.GOTO, loopLbl);
+        code.addLabel(endLbl);
+    }
 }
@@ -2,6 +2,7 @@ package edu.montana.csci.csci468.parser.statements;
 
 import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
 import edu.montana.csci.csci468.eval.CatscriptRuntime;
+import edu.montana.csci.csci468.parser.ConstantFolder;
 import edu.montana.csci.csci468.parser.SymbolTable;
 import edu.montana.csci.csci468.parser.expressions.Expression;
 import edu.montana.csci.csci468.parser.expressions.FunctionCallExpression;
@@ -27,6 +28,11 @@ public class FunctionCallStatement extends Statement {
         return expression.getName();
     }
 
+    @Override
+    public void fold(ConstantFolder folder) {
+        expression.fold(folder);
+    }
+
     //==============================================================
     // Implementation
     //==============================================================
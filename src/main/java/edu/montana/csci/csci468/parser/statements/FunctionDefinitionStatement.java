@@ -2,11 +2,12 @@ package edu.montana.csci.csci468.parser.statements;
 
 import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
 import edu.montana.csci.csci468.eval.CatscriptRuntime;
-import edu.montana.csci.csci468.eval.ReturnException;
 import edu.montana.csci.csci468.parser.CatscriptType;
+import edu.montana.csci.csci468.parser.ConstantFolder;
 import edu.montana.csci.csci468.parser.ErrorType;
 import edu.montana.csci.csci468.parser.ParseError;
 import edu.montana.csci.csci468.parser.SymbolTable;
+import edu.montana.csci.csci468.parser.VariableResolver;
 import edu.montana.csci.csci468.parser.expressions.TypeLiteral;
 import org.objectweb.asm.Opcodes;
 
@@ -22,6 +23,7 @@ public class FunctionDefinitionStatement extends Statement {
     private List<CatscriptType> argumentTypes = new ArrayList<>();
     private List<String> argumentNames = new ArrayList<>();
     private LinkedList<Statement> body;
+    private int frameSize;
 
     public void setName(String name) {
         this.name = name;
@@ -117,23 +119,43 @@ public class FunctionDefinitionStatement extends Statement {
         return false;
     }
 
+    @Override
+    public void resolve(VariableResolver resolver) {
+        resolver.pushFrame();
+        // parameters are declared first, so parameter i always lives in slot i
+        for (int i = 0; i < getParameterCount(); i++) {
+            resolver.declare(getParameterName(i));
+        }
+        for (Statement statement : body) {
+            statement.resolve(resolver);
+        }
+        frameSize = resolver.popFrame();
+    }
+
+    @Override
+    public void fold(ConstantFolder folder) {
+        body = new LinkedList<>(foldStatements(body, folder));
+    }
+
     public Object invoke(CatscriptRuntime runtime, List<Object> args) {
-        runtime.pushScope();
+        // recursion never reaches a loop's check, so calls check the budget as well
+        runtime.checkBudget();
+        runtime.pushFrame(frameSize);
         int parameterCount = getParameterCount();
         for (int i = 0; i < parameterCount; i++) {
-            runtime.setValue(getParameterName(i), args.get(i));
+            runtime.setValue(getParameterName(i), 0, i, args.get(i));
         }
-        Object returnVal = null;
         try {
             for (Statement statement : body) {
                 statement.execute(runtime);
+                if (runtime.isReturning()) {
+                    break;
+                }
             }
-        } catch (ReturnException re) {
-            returnVal = re.getValue();
         } finally {
-            runtime.popScope();
+            runtime.popFrame();
         }
-        return returnVal;
+        return runtime.takeReturnValue();
     }
 
     public String getDescriptor() {
@@ -172,6 +194,7 @@ public class FunctionDefinitionStatement extends Statement {
     @Override
     public void compile(ByteCodeGenerator code) {
         code.pushMethod(Opcodes.ACC_PUBLIC, getName(), getDescriptor());
+        code.addBudgetCheck();
         
         for (int i = 0; i < getParameterCount(); i++) {
             Integer argSlot = code.createLocalStorageSlotFor(getParameterName(i));
@@ -3,9 +3,12 @@ package edu.montana.csci.csci468.parser.statements;
 import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
 import edu.montana.csci.csci468.eval.CatscriptRuntime;
 import edu.montana.csci.csci468.parser.CatscriptType;
+import edu.montana.csci.csci468.parser.ConstantFolder;
 import edu.montana.csci.csci468.parser.ErrorType;
 import edu.montana.csci.csci468.parser.ParseError;
 import edu.montana.csci.csci468.parser.SymbolTable;
+import edu.montana.csci.csci468.parser.VariableResolver;
+import edu.montana.csci.csci468.parser.expressions.BooleanLiteralExpression;
 import edu.montana.csci.csci468.parser.expressions.Expression;
 
 import org.objectweb.asm.Label;
@@ -68,19 +71,72 @@ public class IfStatement extends Statement {
         symbolTable.popScope();
     }
 
+    @Override
+    public void resolve(VariableResolver resolver) {
+        expression.resolve(resolver);
+        resolver.pushScope();
+        for (Statement trueStatement : trueStatements) {
+            trueStatement.resolve(resolver);
+        }
+        resolver.popScope();
+        resolver.pushScope();
+        for (Statement elseStatement : elseStatements) {
+            elseStatement.resolve(resolver);
+        }
+        resolver.popScope();
+    }
+
+    @Override
+    public void fold(ConstantFolder folder) {
+        expression = foldChild(expression, folder);
+        trueStatements = foldStatements(trueStatements, folder);
+        elseStatements = foldStatements(elseStatements, folder);
+        if (isConstant()) {
+            List<Statement> dead = getValue() ? elseStatements : trueStatements;
+            folder.removed(dead);
+            replaceChildren(dead, Collections.emptyList());
+            if (getValue()) {
+                elseStatements = Collections.emptyList();
+            } else {
+                trueStatements = Collections.emptyList();
+            }
+        }
+    }
+
+    /**
+     * True once folding has reduced the condition to a literal.
+     */
+    public boolean isConstant() {
+        return expression instanceof BooleanLiteralExpression;
+    }
+
+    public List<Statement> getLiveStatements() {
+        return getValue() ? trueStatements : elseStatements;
+    }
+
+    private boolean getValue() {
+        return ((BooleanLiteralExpression) expression).getValue();
+    }
+
     // ==============================================================
     // Implementation
     // ==============================================================
     @Override
     public void execute(CatscriptRuntime runtime) {
         // super.execute(runtime);
-        if ((Boolean) expression.evaluate(runtime)) {
+        if (expression.evaluateBoolean(runtime)) {
             for (Statement trueStatement : trueStatements) {
                 trueStatement.execute(runtime);
+                if (runtime.isReturning()) {
+                    return;
+                }
             }
         } else {
             for (Statement elseStatement : elseStatements) {
                 elseStatement.execute(runtime);
+                if (runtime.isReturning()) {
+                    return;
+                }
             }
         }
     }
@@ -2,6 +2,7 @@ package edu.montana.csci.csci468.parser.statements;
 
 import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
 import edu.montana.csci.csci468.eval.CatscriptRuntime;
+import edu.montana.csci.csci468.parser.ConstantFolder;
 import edu.montana.csci.csci468.parser.SymbolTable;
 import edu.montana.csci.csci468.parser.expressions.Expression;
 import org.objectweb.asm.Opcodes;
@@ -23,12 +24,17 @@ public class PrintStatement extends Statement {
         expression.validate(symbolTable);
     }
 
+    @Override
+    public void fold(ConstantFolder folder) {
+        expression = foldChild(expression, folder);
+    }
+
     //==============================================================
     // Implementation
     //==============================================================
     @Override
     public void execute(CatscriptRuntime runtime) {
-        getProgram().print(expression.evaluate(runtime));
+        runtime.print(expression.evaluate(runtime));
     }
 
     @Override
@@ -2,8 +2,8 @@ package edu.montana.csci.csci468.parser.statements;
 
 import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
 import edu.montana.csci.csci468.eval.CatscriptRuntime;
-import edu.montana.csci.csci468.eval.ReturnException;
 import edu.montana.csci.csci468.parser.CatscriptType;
+import edu.montana.csci.csci468.parser.ConstantFolder;
 import edu.montana.csci.csci468.parser.ErrorType;
 import edu.montana.csci.csci468.parser.ParseError;
 import edu.montana.csci.csci468.parser.SymbolTable;
@@ -39,13 +39,19 @@ public class ReturnStatement extends Statement {
         }
     }
 
+    @Override
+    public void fold(ConstantFolder folder) {
+        if (expression != null) {
+            expression = foldChild(expression, folder);
+        }
+    }
+
     // ==============================================================
     // Implementation
     // ==============================================================
     @Override
     public void execute(CatscriptRuntime runtime) {
-        // super.execute(runtime);
-        throw new ReturnException(expression.evaluate(runtime));
+        runtime.setReturnValue(expression == null ? null : expression.evaluate(runtime));
     }
 
     @Override
@@ -2,6 +2,7 @@ package edu.montana.csci.csci468.parser.statements;
 
 import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
 import edu.montana.csci.csci468.eval.CatscriptRuntime;
+import edu.montana.csci.csci468.parser.ConstantFolder;
 import edu.montana.csci.csci468.parser.ParseElement;
 
 public abstract class Statement extends ParseElement {
@@ -10,4 +11,10 @@ public abstract class Statement extends ParseElement {
         throw new UnsupportedOperationException("execute needs to be implemented for " + this.getClass().getName());
     }
 
+    /**
+     * Folds the constant expressions inside this statement in place.
+     */
+    public void fold(ConstantFolder folder) {
+    }
+
 }
@@ -3,9 +3,11 @@ package edu.montana.csci.csci468.parser.statements;
 import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
 import edu.montana.csci.csci468.eval.CatscriptRuntime;
 import edu.montana.csci.csci468.parser.CatscriptType;
+import edu.montana.csci.csci468.parser.ConstantFolder;
 import edu.montana.csci.csci468.parser.ErrorType;
 import edu.montana.csci.csci468.parser.ParseError;
 import edu.montana.csci.csci468.parser.SymbolTable;
+import edu.montana.csci.csci468.parser.VariableResolver;
 import edu.montana.csci.csci468.parser.expressions.Expression;
 
 import org.objectweb.asm.Opcodes;
@@ -16,6 +18,7 @@ public class VariableStatement extends Statement {
     private String variableName;
     private CatscriptType explicitType;
     private CatscriptType type;
+    private int slot;
 
     public Expression getExpression() {
         return expression;
@@ -68,13 +71,24 @@ public class VariableStatement extends Statement {
         return type;
     }
 
+    @Override
+    public void resolve(VariableResolver resolver) {
+        expression.resolve(resolver);
+        slot = resolver.declare(variableName);
+    }
+
+    @Override
+    public void fold(ConstantFolder folder) {
+        expression = foldChild(expression, folder);
+    }
+
     // ==============================================================
     // Implementation
     // ==============================================================
     @Override
     public void execute(CatscriptRuntime runtime) {
         // super.execute(runtime);
-        runtime.setValue(variableName, expression.evaluate(runtime));
+        runtime.setValue(variableName, 0, slot, expression.evaluate(runtime));
     }
 
     @Override
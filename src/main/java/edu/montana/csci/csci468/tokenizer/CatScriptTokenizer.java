@@ -1,28 +1,105 @@
 package edu.montana.csci.csci468.tokenizer;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+
 import static edu.montana.csci.csci468.tokenizer.TokenType.*;
 
+/**
+ * Scans tokens on demand as the TokenList asks for them, rather than tokenizing the whole
+ * source up front.  The source can be any CharSequence, a memory-mapped file or a Reader;
+ * a Reader is buffered as it is read so that error messages can still quote source lines.
+ */
 public class CatScriptTokenizer {
 
+    private static final int READ_CHUNK = 8192;
+
     TokenList tokenList;
-    String src;
+    CharSequence src;
     int postion = 0;
     int line = 1;
-    int lineOffset = 0;
-
-    public CatScriptTokenizer(String source) {
+    // offset of the first character of each line, recorded as newlines are consumed
+    private int[] lineStarts = new int[256];
+    private Reader reader;
+    // set once an edited version of the source has taken over the tokens scanned here
+    CatScriptTokenizer forward;
+    int forwardFrom;
+    int forwardDelta;
+    int forwardLineDelta;
+
+    public CatScriptTokenizer(CharSequence source) {
         src = source;
         tokenList = new TokenList(this);
-        tokenize();
     }
 
-    private void tokenize() {
+    public CatScriptTokenizer(Reader reader) {
+        this(new StringBuilder());
+        this.reader = reader;
+    }
+
+    public static CatScriptTokenizer forFile(Path path) throws IOException {
+        return new CatScriptTokenizer(MappedFileSource.open(path));
+    }
+
+    /**
+     * A tokenizer over an edited source that starts scanning at {@code offset}, the start of
+     * a token the edit did not touch.  The line index before that point is copied from the
+     * tokenizer of the previous version rather than rescanned.
+     */
+    public static CatScriptTokenizer resume(CharSequence source, CatScriptTokenizer previous, int offset) {
+        CatScriptTokenizer tokenizer = new CatScriptTokenizer(source);
+        tokenizer.postion = offset;
+        tokenizer.line = previous.getLineForOffset(offset);
+        tokenizer.lineStarts = Arrays.copyOf(previous.lineStarts, Math.max(256, tokenizer.line));
+        return tokenizer;
+    }
+
+    /**
+     * Completes the line index from the previous version once the rest of the source is
+     * known to be unchanged, shifted by the edit.  Nothing more is scanned afterwards.
+     */
+    public void adoptLines(CatScriptTokenizer previous, int delta, int lineDelta) {
+        int lines = previous.line + lineDelta;
+        if (lines > lineStarts.length) {
+            lineStarts = Arrays.copyOf(lineStarts, lines);
+        }
+        for (int n = line + 1; n <= lines; n++) {
+            lineStarts[n - 1] = previous.lineStarts[n - 1 - lineDelta] + delta;
+        }
+        line = Math.max(line, lines);
+        postion = src.length();
+    }
+
+    /**
+     * Hands the tokens scanned here over to the tokenizer of an edited version of the
+     * source: tokens at or after {@code from} move by the edit, earlier ones stay put.
+     * Tokens catch up lazily the next time they are read, and this tokenizer drops the
+     * old source.
+     */
+    public void forwardTo(CatScriptTokenizer next, int from, int delta, int lineDelta) {
+        forward = next;
+        forwardFrom = from;
+        forwardDelta = delta;
+        forwardLineDelta = lineDelta;
+        src = null;
+        lineStarts = null;
+        tokenList = null;
+    }
+
+    /**
+     * Scans the next token into the token list, or the EOF token at the end of the source.
+     * Comments produce no token, so the list calls this until it has what it needs.
+     */
+    void scanNextToken() {
         consumeWhitespace();
-        while (!tokenizationEnd()) {
+        if (tokenizationEnd()) {
+            tokenList.addToken(EOF, "<EOF>", postion, postion, line);
+        } else {
             scanToken();
-            consumeWhitespace();
         }
-        tokenList.addToken(EOF, "<EOF>", postion, postion, line, lineOffset);
     }
 
     private void scanToken() {
@@ -42,6 +119,7 @@ public class CatScriptTokenizer {
 
         if(matchAndConsume('"')){
             int start = postion;
+            int startLine = line;
 
             while (!tokenizationEnd() && peek() != '"') {
                 if (peek() == '\\') {
@@ -53,13 +131,12 @@ public class CatScriptTokenizer {
                     takeChar();
                 }
             }
-            String value = src.substring(start, postion);
             if(matchAndConsume('"')) {
 
-                tokenList.addToken(STRING, value, start, postion, line, lineOffset);
+                tokenList.addToken(STRING, null, start, postion, startLine);
                 return true;
             } else {
-                tokenList.addToken(ERROR, "Unexpected Token:", start, postion, line, lineOffset);
+                tokenList.addToken(ERROR, "Unexpected Token:", start, postion, startLine);
                 return true;
             }
         }else{
@@ -74,16 +151,10 @@ public class CatScriptTokenizer {
             while (isAlphaNumeric(peek())) {
                 takeChar();
             }
-            String value = src.substring(start, postion);
-            for(int i=0; i< value.length(); i++){
-                lineOffset++;
-            }
+            String value = src.subSequence(start, postion).toString();
 
-            if (KEYWORDS.containsKey(value)) {
-                tokenList.addToken(KEYWORDS.get(value), value, start, postion, line, lineOffset);
-            } else {
-                tokenList.addToken(IDENTIFIER, value, start, postion, line, lineOffset);
-            }
+            TokenType keyword = KEYWORDS.get(value);
+            tokenList.addToken(keyword != null ? keyword : IDENTIFIER, null, start, postion, line);
 
             return true;
         } else {
@@ -97,7 +168,7 @@ public class CatScriptTokenizer {
             while (isDigit(peek())) {
                 takeChar();
             }
-            tokenList.addToken(INTEGER, src.substring(start, postion), start, postion, line, lineOffset);
+            tokenList.addToken(INTEGER, null, start, postion, line);
             return true;
         } else {
             return false;
@@ -108,65 +179,65 @@ public class CatScriptTokenizer {
 
         int start = postion;
         if(matchAndConsume('+')) {
-            tokenList.addToken(PLUS, "+", start, postion, line, lineOffset);
+            tokenList.addToken(PLUS, null, start, postion, line);
 
         }else if(matchAndConsume('-')) {
-            tokenList.addToken(MINUS, "-", start, postion, line, lineOffset);
+            tokenList.addToken(MINUS, null, start, postion, line);
         }else if(matchAndConsume('/')) {
             if (matchAndConsume('/')) {
                 while (peek() != '\n' && !tokenizationEnd()) {
                     takeChar();
                 }
             } else {
-                tokenList.addToken(SLASH, "-", start, postion, line, lineOffset);
+                tokenList.addToken(SLASH, null, start, postion, line);
             }
         }else if(matchAndConsume('=')) {
             if (matchAndConsume('=')) {
-                tokenList.addToken(EQUAL_EQUAL, "==", start, postion, line, lineOffset);
+                tokenList.addToken(EQUAL_EQUAL, null, start, postion, line);
             } else {
-                tokenList.addToken(EQUAL, "=", start, postion, line, lineOffset);
+                tokenList.addToken(EQUAL, null, start, postion, line);
             }
 
         }else if(matchAndConsume('(')) {
-            tokenList.addToken(LEFT_PAREN, "(", start, postion, line, lineOffset);
+            tokenList.addToken(LEFT_PAREN, null, start, postion, line);
         }else if(matchAndConsume(')')) {
-            tokenList.addToken(RIGHT_PAREN, ")", start, postion, line, lineOffset);
+            tokenList.addToken(RIGHT_PAREN, null, start, postion, line);
         }else if(matchAndConsume('{')) {
-            tokenList.addToken(LEFT_BRACE, "{", start, postion, line, lineOffset);
+            tokenList.addToken(LEFT_BRACE, null, start, postion, line);
         }else if(matchAndConsume('}')) {
-            tokenList.addToken(RIGHT_BRACE, "}", start, postion, line, lineOffset);
+            tokenList.addToken(RIGHT_BRACE, null, start, postion, line);
         }else if(matchAndConsume('[')) {
-            tokenList.addToken(LEFT_BRACKET, "[", start, postion, line, lineOffset);
+            tokenList.addToken(LEFT_BRACKET, null, start, postion, line);
         }else if(matchAndConsume(']')) {
-            tokenList.addToken(RIGHT_BRACKET, "]", start, postion, line, lineOffset);
+            tokenList.addToken(RIGHT_BRACKET, null, start, postion, line);
         }else if(matchAndConsume(',')) {
-            tokenList.addToken(COMMA, ",", start, postion, line, lineOffset);
+            tokenList.addToken(COMMA, null, start, postion, line);
         }else if(matchAndConsume('.')) {
-            tokenList.addToken(DOT, ".", start, postion, line, lineOffset);
+            tokenList.addToken(DOT, null, start, postion, line);
         }else if(matchAndConsume(':')) {
-            tokenList.addToken(COLON, ":", start, postion, line, lineOffset);
+            tokenList.addToken(COLON, null, start, postion, line);
         }else if(matchAndConsume('*')) {
-            tokenList.addToken(STAR, "*", start, postion, line, lineOffset);
+            tokenList.addToken(STAR, null, start, postion, line);
         }else if(matchAndConsume('!')) {
             if(matchAndConsume('=')) {
-                tokenList.addToken(BANG_EQUAL, "!=", start, postion, line, lineOffset);
+                tokenList.addToken(BANG_EQUAL, null, start, postion, line);
             }
         }else if(matchAndConsume('<')) {
             if(matchAndConsume('=')) {
-                tokenList.addToken(LESS_EQUAL, "!=", start, postion, line, lineOffset);
+                tokenList.addToken(LESS_EQUAL, null, start, postion, line);
             }else{
-                tokenList.addToken(LESS, "<", start, postion, line, lineOffset);
+                tokenList.addToken(LESS, null, start, postion, line);
             }
         }else if(matchAndConsume('>')) {
             if(matchAndConsume('=')) {
-                tokenList.addToken(GREATER_EQUAL, ">=", start, postion, line, lineOffset);
+                tokenList.addToken(GREATER_EQUAL, null, start, postion, line);
             }else{
-                tokenList.addToken(GREATER, ">", start, postion, line, lineOffset);
+                tokenList.addToken(GREATER, null, start, postion, line);
             }
         }
 
         else{
-            tokenList.addToken(ERROR, "<Unexpected Token: [" + takeChar() + "]>", start, postion, line, lineOffset);
+            tokenList.addToken(ERROR, "<Unexpected Token: [" + takeChar() + "]>", start, postion, line);
         }
     }
 
@@ -176,13 +247,11 @@ public class CatScriptTokenizer {
             char c = peek();
             if (c == ' ' || c == '\r' || c == '\t') {
                 postion++;
-                lineOffset++;
                 continue;
 
             } else if (c == '\n') {
                 postion++;
-                lineOffset= 0;
-                line++;
+                newLine();
                 continue;
             }
             break;
@@ -215,11 +284,91 @@ public class CatScriptTokenizer {
     private char takeChar() {
         char c = src.charAt(postion);
         postion++;
+        if (c == '\n') {
+            newLine();
+        }
         return c;
     }
 
+    private void newLine() {
+        if (line == lineStarts.length) {
+            lineStarts = Arrays.copyOf(lineStarts, line * 2);
+        }
+        lineStarts[line++] = postion;
+    }
+
+    //===============================================================
+    // Line index
+    //===============================================================
+
+    /**
+     * The offset of the first character of a (1-based) line.  Only lines the tokenizer has
+     * reached are indexed, which covers every token handed out so far.
+     */
+    public int getLineStart(int line) {
+        return lineStarts[line - 1];
+    }
+
+    /**
+     * The offset of the newline ending a line, or the end of the source read so far.
+     */
+    public int getLineEnd(int line) {
+        if (line < this.line) {
+            return lineStarts[line] - 1;
+        }
+        int end = lineStarts[line - 1];
+        while (end < src.length() && src.charAt(end) != '\n') {
+            end++;
+        }
+        return end;
+    }
+
+    public String getLineContent(int line) {
+        return src.subSequence(getLineStart(line), getLineEnd(line)).toString();
+    }
+
+    /**
+     * Maps a source offset to its (1-based) line by binary search over the line starts.
+     */
+    public int getLineForOffset(int offset) {
+        int low = 0;
+        int high = line - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (lineStarts[mid] <= offset) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low + 1;
+    }
+
+    public int getColumnForOffset(int offset) {
+        return offset - getLineStart(getLineForOffset(offset));
+    }
+
     private boolean tokenizationEnd() {
-        return postion >= src.length();
+        return postion >= src.length() && !fill();
+    }
+
+    private boolean fill() {
+        if (reader == null) {
+            return false;
+        }
+        try {
+            char[] chunk = new char[READ_CHUNK];
+            int read = reader.read(chunk);
+            if (read < 0) {
+                reader.close();
+                reader = null;
+                return false;
+            }
+            ((StringBuilder) src).append(chunk, 0, read);
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
     public boolean matchAndConsume(char c) {
@@ -231,6 +380,10 @@ public class CatScriptTokenizer {
         return false;
     }
 
+    public CharSequence getSource() {
+        return src;
+    }
+
     public TokenList getTokens() {
         return tokenList;
     }
@@ -240,9 +393,9 @@ public class CatScriptTokenizer {
         if (tokenizationEnd()) {
             return src + "-->[]<--";
         } else {
-            return src.substring(0, postion) + "-->[" + peek() + "]<--" +
+            return src.subSequence(0, postion) + "-->[" + peek() + "]<--" +
                     ((postion == src.length() - 1) ? "" :
-                            src.substring(postion + 1, src.length() - 1));
+                            src.subSequence(postion + 1, src.length() - 1));
         }
     }
 }
\ No newline at end of file
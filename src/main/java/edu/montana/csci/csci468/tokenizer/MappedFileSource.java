@@ -0,0 +1,56 @@
+package edu.montana.csci.csci468.tokenizer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A read-only CharSequence over a memory-mapped source file, so large scripts can be
+ * tokenized without copying them onto the heap.  CatScript source is ASCII; bytes are
+ * read as ISO-8859-1, so non-ASCII text inside string literals comes through one char per
+ * UTF-8 byte.  Use a Reader with the right charset for such files.
+ */
+public class MappedFileSource implements CharSequence {
+
+    private final ByteBuffer bytes;
+
+    private MappedFileSource(ByteBuffer bytes) {
+        this.bytes = bytes;
+    }
+
+    public static MappedFileSource open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new MappedFileSource(buffer);
+        }
+    }
+
+    @Override
+    public int length() {
+        return bytes.limit();
+    }
+
+    @Override
+    public char charAt(int index) {
+        return (char) (bytes.get(index) & 0xFF);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        ByteBuffer slice = bytes.duplicate();
+        slice.position(start);
+        slice.limit(end);
+        return new MappedFileSource(slice.slice());
+    }
+
+    @Override
+    public String toString() {
+        byte[] copy = new byte[length()];
+        bytes.duplicate().get(copy);
+        return new String(copy, StandardCharsets.ISO_8859_1);
+    }
+}
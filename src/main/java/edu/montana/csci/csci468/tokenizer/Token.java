@@ -1,5 +1,9 @@
 package edu.montana.csci.csci468.tokenizer;
 
+/**
+ * A view of one token in a TokenList.  Tokens are only created when the parser asks for
+ * them; the string value is cut from the source the first time it is needed.
+ */
 public class Token {
 
     int start;
@@ -8,7 +12,8 @@ public class Token {
     int lineOffset;
     String stringValue;
     TokenType type;
-    private final CatScriptTokenizer tokenizer;
+    int index = -1;
+    private CatScriptTokenizer tokenizer;
 
     public Token(int start, int end, int line, int lineOffset, String stringValue, TokenType type, CatScriptTokenizer tokenizer) {
         this.start = start;
@@ -21,22 +26,32 @@ public class Token {
     }
 
     public int getStart() {
+        settle();
         return start;
     }
 
     public int getEnd() {
+        settle();
         return end;
     }
 
     public int getLine() {
+        settle();
         return line;
     }
 
     public int getLineOffset() {
+        settle();
         return lineOffset;
     }
 
     public String getStringValue() {
+        if (stringValue == null) {
+            settle();
+            // a string token ends after its closing quote, but the value leaves it out
+            int valueEnd = type == TokenType.STRING ? end - 1 : end;
+            stringValue = tokenizer.src.subSequence(start, valueEnd).toString();
+        }
         return stringValue;
     }
 
@@ -46,7 +61,8 @@ public class Token {
 
     @Override
     public String toString() {
-        return "Token(\"" + stringValue + "\"){" +
+        settle();
+        return "Token(\"" + getStringValue() + "\"){" +
                 "type=" + type +
                 ", start=" + start +
                 ", end=" + end +
@@ -56,7 +72,32 @@ public class Token {
     }
 
     public String getLineContent() {
-        String[] lines = tokenizer.src.split("\n");
-        return lines[line - 1];
+        settle();
+        return tokenizer.getLineContent(line);
+    }
+
+    /**
+     * Follows the tokenizer forward through any edits made since this token was scanned,
+     * shifting it if it came after the edited text.  Done on first access, so reusing a
+     * parse tree across an edit does not have to visit its tokens.
+     */
+    private void settle() {
+        if (tokenizer.forward == null) {
+            return;
+        }
+        boolean moved = false;
+        while (tokenizer.forward != null) {
+            if (start >= tokenizer.forwardFrom) {
+                start += tokenizer.forwardDelta;
+                end += tokenizer.forwardDelta;
+                line += tokenizer.forwardLineDelta;
+                moved = true;
+            }
+            tokenizer = tokenizer.forward;
+        }
+        if (moved) {
+            lineOffset = start - tokenizer.getLineStart(line);
+        }
+        index = -1;
     }
 }
@@ -1,35 +1,113 @@
 package edu.montana.csci.csci468.tokenizer;
 
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.Iterator;
-import java.util.List;
-import java.util.Spliterator;
-import java.util.function.Consumer;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import static edu.montana.csci.csci468.tokenizer.TokenType.EOF;
 import static edu.montana.csci.csci468.tokenizer.TokenType.IDENTIFIER;
 
+/**
+ * A pull-based view of the tokenizer's output.  Tokens are scanned as the parser asks for
+ * them and only a window starting at the previous token is kept, so memory no longer grows
+ * with the size of the source.
+ *
+ * A mark pins every token from the marked position on, and reset() returns to it.  A new
+ * list is marked at its first token, so it keeps everything until the parser calls
+ * clearMark().
+ *
+ * The window is stored as parallel int arrays rather than Token objects; a Token is only
+ * built when the parser asks for one, its string value is taken from the source and its
+ * column from the tokenizer's line index.
+ */
 public class TokenList implements Iterable<Token> {
 
+    private static final int MIN_COMPACTION = 256;
+    private static final TokenType[] TYPES = TokenType.values();
+
     private final CatScriptTokenizer tokenizer;
-    List<Token> tokens = new ArrayList<>();
-    int currentToken = 0;
+    private int[] types = new int[64];
+    private int[] starts = new int[64];
+    private int[] ends = new int[64];
+    private int[] lines = new int[64];
+    private int size;
+    // values that are not a slice of the source (EOF and error tokens), by absolute index
+    private final Map<Integer, String> values = new HashMap<>();
+    private Token currentView;
+    private int windowStart = 0;
+    private int currentToken = 0;
+    private int mark = 0;
+    private boolean complete;
 
     public TokenList(CatScriptTokenizer tokenizer) {
         this.tokenizer = tokenizer;
     }
 
-    void addToken(TokenType eof, String stringValue, int start, int end, int line, int lineOffset) {
-        tokens.add(new Token(start, end, line, lineOffset - (end - start), stringValue, eof, tokenizer));
+    /**
+     * Appends a token; a null value means the value is the token's text in the source.
+     */
+    void addToken(TokenType type, String stringValue, int start, int end, int line) {
+        if (size == types.length) {
+            int capacity = size * 2;
+            types = Arrays.copyOf(types, capacity);
+            starts = Arrays.copyOf(starts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+            lines = Arrays.copyOf(lines, capacity);
+        }
+        types[size] = type.ordinal();
+        starts[size] = start;
+        ends[size] = end;
+        lines[size] = line;
+        if (stringValue != null) {
+            values.put(windowStart + size, stringValue);
+        }
+        size++;
+        if (type == EOF) {
+            complete = true;
+        }
+    }
+
+    /**
+     * Returns the window slot of the token at an absolute index, scanning ahead as needed.
+     * Indexes past the end of the source all map to the EOF token.  Scanning can grow the
+     * arrays, so take the slot before indexing into them.
+     */
+    private int slot(int index) {
+        while (index - windowStart >= size) {
+            if (complete) {
+                return size - 1;
+            }
+            tokenizer.scanNextToken();
+        }
+        return index - windowStart;
+    }
+
+    private Token get(int index) {
+        int slot = slot(index);
+        if (currentView != null && currentView.index == windowStart + slot) {
+            return currentView;
+        }
+        int lineOffset = starts[slot] - tokenizer.getLineStart(lines[slot]);
+        Token token = new Token(starts[slot], ends[slot], lines[slot], lineOffset,
+                values.get(windowStart + slot), TYPES[types[slot]], tokenizer);
+        token.index = windowStart + slot;
+        return token;
     }
 
     public Token getCurrentToken() {
-        return tokens.get(currentToken);
+        Token token = get(currentToken);
+        currentView = token;
+        return token;
     }
 
     public Token consumeToken() {
-        return tokens.get(currentToken++);
+        Token token = get(currentToken++);
+        compact();
+        return token;
     }
 
     public boolean matchAndConsume(TokenType... type) {
@@ -42,64 +120,127 @@ public class TokenList implements Iterable<Token> {
     }
 
     public boolean match(String identifier) {
-        if (getCurrentToken().getType().equals(IDENTIFIER) &&
-            getCurrentToken().getStringValue().equals(identifier)) {
-            return true;
-        } else {
+        int slot = slot(currentToken);
+        if (types[slot] != IDENTIFIER.ordinal() || ends[slot] - starts[slot] != identifier.length()) {
             return false;
         }
+        for (int i = 0; i < identifier.length(); i++) {
+            if (tokenizer.src.charAt(starts[slot] + i) != identifier.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
     }
 
     public boolean match(TokenType... type) {
+        int slot = slot(currentToken);
+        int current = types[slot];
         for (TokenType tokenType : type) {
-            if (getCurrentToken().getType().equals(tokenType)) {
+            if (current == tokenType.ordinal()) {
                 return true;
             }
         }
         return false;
     }
 
+    public void mark() {
+        mark = currentToken;
+    }
+
+    public void clearMark() {
+        mark = -1;
+        compact();
+    }
+
+    /**
+     * Rewinds to the mark, by default the first token.
+     */
     public void reset() {
-        currentToken = 0;
+        if (mark < 0) {
+            throw new IllegalStateException("No mark to reset to");
+        }
+        currentToken = mark;
     }
 
     public boolean hasMoreTokens() {
-        return currentToken < tokens.size() - 1;
+        int slot = slot(currentToken);
+        return types[slot] != EOF.ordinal();
     }
 
     public Token lastToken() {
-        return tokens.get(Math.max(0, currentToken - 1));
+        return get(Math.max(0, currentToken - 1));
     }
 
-    public Stream<Token> stream() {
-        return tokens.stream();
+    /**
+     * The number of tokens currently held in memory.
+     */
+    public int getBufferedTokenCount() {
+        return size;
     }
 
-    @Override
-    public Iterator<Token> iterator() {
-        return tokens.iterator();
+    // drops tokens before the previous one (lastToken() still needs it) once they are at
+    // least half the window, which keeps the shifting amortized constant per token
+    private void compact() {
+        int keepFrom = currentToken - 1;
+        if (mark >= 0) {
+            keepFrom = Math.min(keepFrom, mark);
+        }
+        int droppable = Math.min(keepFrom - windowStart, size - 1);
+        if (droppable >= MIN_COMPACTION && droppable * 2 >= size) {
+            int remaining = size - droppable;
+            System.arraycopy(types, droppable, types, 0, remaining);
+            System.arraycopy(starts, droppable, starts, 0, remaining);
+            System.arraycopy(ends, droppable, ends, 0, remaining);
+            System.arraycopy(lines, droppable, lines, 0, remaining);
+            size = remaining;
+            windowStart += droppable;
+            if (!values.isEmpty()) {
+                values.keySet().removeIf(index -> index < windowStart);
+            }
+        }
     }
 
-    @Override
-    public void forEach(Consumer action) {
-        tokens.forEach(action);
+    public Stream<Token> stream() {
+        return StreamSupport.stream(spliterator(), false);
     }
 
+    /**
+     * Iterates from the current token through EOF without consuming anything; the tokens
+     * visited stay buffered until they are consumed.
+     */
     @Override
-    public Spliterator<Token> spliterator() {
-        return tokens.spliterator();
+    public Iterator<Token> iterator() {
+        return new Iterator<Token>() {
+            int index = currentToken;
+            boolean done;
+
+            @Override
+            public boolean hasNext() {
+                return !done;
+            }
+
+            @Override
+            public Token next() {
+                if (done) {
+                    throw new NoSuchElementException();
+                }
+                Token token = get(index++);
+                done = token.getType() == EOF;
+                return token;
+            }
+        };
     }
 
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < tokens.size(); i++) {
-            Token token = tokens.get(i);
-            if (i == currentToken) {
+        for (int i = 0; i < size; i++) {
+            Token token = get(windowStart + i);
+            if (i + windowStart == currentToken) {
                 sb.append("-->[");
             }
             sb.append(token.getStringValue());
-            if (i == currentToken) {
+            if (i + windowStart == currentToken) {
                 sb.append("]<--");
             }
             sb.append(" ");
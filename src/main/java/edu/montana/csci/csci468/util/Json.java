@@ -0,0 +1,234 @@
+package edu.montana.csci.csci468.util;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Just enough JSON for the server's request bodies and results: parse() reads a value into
+ * Strings, Doubles, Booleans, nulls, Lists and Maps, and quote() writes a string literal.
+ * Malformed input throws an IllegalArgumentException naming the offset.
+ */
+public class Json {
+
+    private final String src;
+    private int position;
+
+    private Json(String src) {
+        this.src = src;
+    }
+
+    public static Object parse(String src) {
+        Json json = new Json(src);
+        Object value = json.readValue();
+        json.skipWhitespace();
+        if (json.position != src.length()) {
+            throw json.error("unexpected trailing characters");
+        }
+        return value;
+    }
+
+    public static String quote(String value) {
+        StringBuilder quoted = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    quoted.append("\\\"");
+                    break;
+                case '\\':
+                    quoted.append("\\\\");
+                    break;
+                case '\n':
+                    quoted.append("\\n");
+                    break;
+                case '\r':
+                    quoted.append("\\r");
+                    break;
+                case '\t':
+                    quoted.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        quoted.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        quoted.append(c);
+                    }
+            }
+        }
+        return quoted.append('"').toString();
+    }
+
+    private Object readValue() {
+        skipWhitespace();
+        if (position >= src.length()) {
+            throw error("unexpected end of input");
+        }
+        char c = src.charAt(position);
+        switch (c) {
+            case '{':
+                return readObject();
+            case '[':
+                return readArray();
+            case '"':
+                return readString();
+            case 't':
+                return readLiteral("true", Boolean.TRUE);
+            case 'f':
+                return readLiteral("false", Boolean.FALSE);
+            case 'n':
+                return readLiteral("null", null);
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    return readNumber();
+                }
+                throw error("unexpected character '" + c + "'");
+        }
+    }
+
+    private Map<String, Object> readObject() {
+        Map<String, Object> object = new LinkedHashMap<>();
+        position++;
+        skipWhitespace();
+        if (peek() == '}') {
+            position++;
+            return object;
+        }
+        while (true) {
+            skipWhitespace();
+            if (peek() != '"') {
+                throw error("expected a member name");
+            }
+            String name = readString();
+            skipWhitespace();
+            expect(':');
+            object.put(name, readValue());
+            skipWhitespace();
+            if (peek() == ',') {
+                position++;
+            } else {
+                expect('}');
+                return object;
+            }
+        }
+    }
+
+    private List<Object> readArray() {
+        List<Object> array = new ArrayList<>();
+        position++;
+        skipWhitespace();
+        if (peek() == ']') {
+            position++;
+            return array;
+        }
+        while (true) {
+            array.add(readValue());
+            skipWhitespace();
+            if (peek() == ',') {
+                position++;
+            } else {
+                expect(']');
+                return array;
+            }
+        }
+    }
+
+    private String readString() {
+        StringBuilder value = new StringBuilder();
+        position++;
+        while (true) {
+            if (position >= src.length()) {
+                throw error("unterminated string");
+            }
+            char c = src.charAt(position++);
+            if (c == '"') {
+                return value.toString();
+            }
+            if (c != '\\') {
+                value.append(c);
+                continue;
+            }
+            if (position >= src.length()) {
+                throw error("unterminated string");
+            }
+            char escaped = src.charAt(position++);
+            switch (escaped) {
+                case '"':
+                case '\\':
+                case '/':
+                    value.append(escaped);
+                    break;
+                case 'b':
+                    value.append('\b');
+                    break;
+                case 'f':
+                    value.append('\f');
+                    break;
+                case 'n':
+                    value.append('\n');
+                    break;
+                case 'r':
+                    value.append('\r');
+                    break;
+                case 't':
+                    value.append('\t');
+                    break;
+                case 'u':
+                    if (position + 4 > src.length()) {
+                        throw error("bad unicode escape");
+                    }
+                    try {
+                        value.append((char) Integer.parseInt(src.substring(position, position + 4), 16));
+                    } catch (NumberFormatException e) {
+                        throw error("bad unicode escape");
+                    }
+                    position += 4;
+                    break;
+                default:
+                    throw error("bad escape '\\" + escaped + "'");
+            }
+        }
+    }
+
+    private Double readNumber() {
+        int start = position;
+        while (position < src.length() && "+-0123456789.eE".indexOf(src.charAt(position)) >= 0) {
+            position++;
+        }
+        try {
+            return Double.valueOf(src.substring(start, position));
+        } catch (NumberFormatException e) {
+            throw error("bad number");
+        }
+    }
+
+    private Object readLiteral(String literal, Object value) {
+        if (!src.startsWith(literal, position)) {
+            throw error("unexpected character '" + src.charAt(position) + "'");
+        }
+        position += literal.length();
+        return value;
+    }
+
+    private void expect(char c) {
+        if (peek() != c) {
+            throw error("expected '" + c + "'");
+        }
+        position++;
+    }
+
+    private char peek() {
+        return position < src.length() ? src.charAt(position) : 0;
+    }
+
+    private void skipWhitespace() {
+        while (position < src.length() && Character.isWhitespace(src.charAt(position))) {
+            position++;
+        }
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException("Bad JSON at offset " + position + ": " + message);
+    }
+}
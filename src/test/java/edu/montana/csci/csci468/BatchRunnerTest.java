@@ -0,0 +1,83 @@
+package edu.montana.csci.csci468;
+
+import edu.montana.csci.csci468.bytecode.CompiledProgramCache;
+import edu.montana.csci.csci468.eval.ExecutionScheduler;
+import edu.montana.csci.csci468.util.Json;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BatchRunnerTest extends CatscriptTestBase {
+
+    @Test
+    void sourcesAreReadFromJsonArraysAndLines() {
+        assertEquals(List.of("print(1)", "print(2)"),
+                BatchRunner.readSources("[\"print(1)\", {\"src\": \"print(2)\", \"name\": \"two\"}]"));
+        assertEquals(List.of("print(\"a\")", "print(2)"),
+                BatchRunner.readSources("\"print(\\\"a\\\")\"\n\n{\"src\":\"print(2)\"}\n"));
+        assertThrows(IllegalArgumentException.class, () -> BatchRunner.readSources("[\"print(1)\", 2]"));
+        assertThrows(IllegalArgumentException.class, () -> BatchRunner.readSources("[\"print(1)\""));
+    }
+
+    @Test
+    void resultsComeBackInOrder() throws IOException {
+        StringBuilder list = new StringBuilder("[");
+        for (int i = 0; i < 1000; i++) {
+            list.append(i == 0 ? "" : ", ").append(i);
+        }
+        list.append("]");
+        List<String> sources = List.of(
+                "for(x in [1, 2, 3]) { print(x * 2) }",
+                "print(y)",
+                "var l = " + list + "\nfor(i in l) { for(j in l) { for(k in l) { var x = i * j + k } } }",
+                "var s = \"a\"\ns = \"b\"\nprint(s)",
+                "print(\"done\")");
+        CompiledProgramCache cache = new CompiledProgramCache(16);
+        try (ExecutionScheduler scheduler = new ExecutionScheduler(2, 16, 300, 0, false)) {
+            BatchRunner runner = new BatchRunner(scheduler, cache, 4);
+
+            StringWriter lines = new StringWriter();
+            runner.run(sources, lines, false);
+            String[] results = lines.toString().split("\n");
+            assertEquals(5, results.length);
+            assertEquals("{\"index\":0,\"output\":\"2\\n4\\n6\\n\"}", results[0]);
+            assertTrue(results[1].startsWith("{\"index\":1,\"error\":\"Parse Errors Occurred"));
+            assertTrue(results[2].contains("wall-clock budget"));
+            // assignments do not compile yet, so this one was interpreted
+            assertEquals("{\"index\":3,\"output\":\"b\\n\"}", results[3]);
+            assertEquals("{\"index\":4,\"output\":\"done\\n\"}", results[4]);
+
+            StringWriter array = new StringWriter();
+            runner.run(sources, array, true);
+            List<?> parsed = (List<?>) Json.parse(array.toString());
+            assertEquals(5, parsed.size());
+            for (int i = 0; i < parsed.size(); i++) {
+                assertEquals((double) i, ((Map<?, ?>) parsed.get(i)).get("index"));
+            }
+            assertEquals("done\n", ((Map<?, ?>) parsed.get(4)).get("output"));
+        }
+        assertTrue(cache.getHits() >= 2);
+    }
+
+    @Test
+    void programsThatOverflowTheStackFailOnTheirOwn() throws IOException {
+        List<String> sources = List.of(
+                "print(1)",
+                "function f(x : int) { f(x) }\nf(1)",
+                "print(3)");
+        try (ExecutionScheduler scheduler = new ExecutionScheduler(2, 16, 5000, 0, false)) {
+            StringWriter lines = new StringWriter();
+            new BatchRunner(scheduler, new CompiledProgramCache(16), 4).run(sources, lines, false);
+            String[] results = lines.toString().split("\n");
+            assertEquals(3, results.length);
+            assertEquals("{\"index\":0,\"output\":\"1\\n\"}", results[0]);
+            assertEquals("{\"index\":1,\"error\":\"java.lang.StackOverflowError\"}", results[1]);
+            assertEquals("{\"index\":2,\"output\":\"3\\n\"}", results[2]);
+        }
+    }
+}
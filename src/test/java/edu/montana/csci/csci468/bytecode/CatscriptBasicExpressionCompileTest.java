@@ -43,6 +43,21 @@ public class CatscriptBasicExpressionCompileTest extends CatscriptTestBase {
         assertEquals("anull\n", compile("\"a\" + null"));
     }
 
+    @Test
+    void stringConcatenationChainsCompileProperly() {
+        assertEquals("3x\n", compile("1 + 2 + \"x\""));
+        assertEquals("x12\n", compile("\"x\" + 1 + 2"));
+        assertEquals("a1nullb\n", compile("\"a\" + 1 + null + \"b\""));
+        assertEquals("a\u0001b\n", compile("\"a\" + \"\u0001\" + \"b\""));
+        StringBuilder longChain = new StringBuilder("\"\"");
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 250; i++) {
+            longChain.append(" + ").append(i);
+            expected.append(i);
+        }
+        assertEquals(expected + "\n", compile(longChain.toString()));
+    }
+
     @Test
     void comparisonExpressionCompilesProperly() {
         assertEquals("false\n", compile("1 > 2"));
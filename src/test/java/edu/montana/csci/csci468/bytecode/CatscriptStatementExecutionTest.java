@@ -4,6 +4,7 @@ import edu.montana.csci.csci468.CatscriptTestBase;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public class CatscriptStatementExecutionTest extends CatscriptTestBase {
 
@@ -58,6 +59,20 @@ public class CatscriptStatementExecutionTest extends CatscriptTestBase {
         assertEquals("1\n2\n3\n", compile("for(x in [1, 2, 3]) { print(x) }"));
     }
 
+    @Test
+    void forStatementOverPrimitiveListsWorksProperly() {
+        assertEquals("true\nfalse\ntrue\n", compile("for(x in [true, false, true]) { print(x) }"));
+        assertEquals("3\n4\n6\n8\n", compile("for(x in [1, 2]) { for(y in [3, 4]) { print(x * y) } }"));
+        assertEquals("", compile("var xs : list<int> = [1]\n" +
+                "for(x in xs) { }"));
+        assertEquals("[1, null]\n", compile("for(x in [[1, null]]) { print(x) }"));
+        // compiled int and bool variables cannot hold null, so the loop fails on reaching it
+        assertThrows(NullPointerException.class, () -> compile("var xs : list<int> = [2, null]\n" +
+                "for(x in xs) { print(x) }"));
+        assertThrows(NullPointerException.class, () -> compile("var bs : list<bool> = [null]\n" +
+                "for(b in bs) { print(b) }"));
+    }
+
     @Test
     void functionDeclarationWorksProperly() {
         assertEquals("1\n2\n3\n", compile("function foo(x) { print(x) }\n" +
@@ -0,0 +1,110 @@
+package edu.montana.csci.csci468.bytecode;
+
+import edu.montana.csci.csci468.CatscriptTestBase;
+import edu.montana.csci.csci468.eval.StringOutputSink;
+import edu.montana.csci.csci468.parser.CatScriptParser;
+import edu.montana.csci.csci468.parser.statements.CatScriptProgram;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompileOptionsTest extends CatscriptTestBase {
+
+    @Test
+    void debuggingAidsAreOffByDefault() {
+        ByteCodeGenerator generator = generatorFor("print(1)", new CompileOptions());
+        CatScriptProgram program = generator.compileToBytecode();
+        program.execute();
+        assertEquals("1\n", program.getOutput());
+        assertNull(generator.getDisassembly());
+    }
+
+    @Test
+    void disassemblyIsKeptOnTheGenerator() {
+        CompileOptions options = new CompileOptions();
+        options.setVerifyBytecode(true);
+        options.setDisassemble(true);
+        ByteCodeGenerator generator = generatorFor("print(1 + 2)", options);
+        generator.compileToBytecode();
+        assertTrue(generator.getDisassembly().contains("IADD"));
+    }
+
+    @Test
+    void classFilesAreDumped(@TempDir Path dumpDirectory) throws Exception {
+        CompileOptions options = new CompileOptions();
+        options.setDumpDirectory(dumpDirectory);
+        ByteCodeGenerator generator = generatorFor("print(1)", options);
+        generator.compileToBytecode();
+        Path classFile = dumpDirectory.resolve(generator.getProgramInternalName() + ".class");
+        assertTrue(Files.size(classFile) > 0);
+    }
+
+    @Test
+    void listLiteralsAreArrayBacked() {
+        String src = "print([\"a\", null, \"c\"])";
+        CompileOptions options = new CompileOptions();
+        options.setDisassemble(true);
+        ByteCodeGenerator generator = generatorFor(src, options);
+        CatScriptProgram program = generator.compileToBytecode();
+        program.execute();
+        assertEquals("[a, null, c]\n", program.getOutput());
+        assertTrue(generator.getDisassembly().contains("ANEWARRAY"));
+        assertFalse(generator.getDisassembly().contains("java/util/LinkedList"));
+    }
+
+    @Test
+    void everyTargetReleaseRunsTheSameProgram() {
+        String src = "function label(unit : string) { for(n in [1, 200]) { print(\"n=\" + n + \" \" + unit) } }\n" +
+                "label(\"cats\")";
+        for (int release : new int[]{5, 11, 17}) {
+            CompileOptions options = new CompileOptions();
+            options.setTargetRelease(release);
+            options.setVerifyBytecode(true);
+            options.setDisassemble(true);
+            ByteCodeGenerator generator = generatorFor(src, options);
+            CatScriptProgram program = generator.compileToBytecode();
+            program.execute();
+            assertEquals("n=1 cats\nn=200 cats\n", program.getOutput());
+            assertEquals(release >= 11, generator.getDisassembly().contains("makeConcatWithConstants"));
+        }
+        assertThrows(IllegalArgumentException.class, () -> new CompileOptions().setTargetRelease(8));
+    }
+
+    @Test
+    void meteredProgramsStopWhenTheirStepsRunOut() {
+        // a call, a two element literal and two iterations make five steps
+        String src = "function label(unit : string) { for(n in [1, 200]) { print(\"n=\" + n + \" \" + unit) } }\n" +
+                "label(\"cats\")";
+        CompileOptions options = new CompileOptions();
+        options.setVerifyBytecode(true);
+        options.setDisassemble(true);
+        ByteCodeGenerator generator = generatorFor(src, options);
+        generator.compileToBytecode();
+        assertFalse(generator.getDisassembly().contains("stepsExhausted"));
+
+        options.setMeteredSteps(5);
+        CatScriptProgram program = generatorFor(src, options).compileToBytecode();
+        for (int i = 0; i < 2; i++) {
+            StringOutputSink output = new StringOutputSink();
+            program.execute(output);
+            assertEquals("n=1 cats\nn=200 cats\n", output.getOutput());
+        }
+
+        options.setMeteredSteps(4);
+        CatScriptProgram starved = generatorFor(src, options).compileToBytecode();
+        StringOutputSink output = new StringOutputSink();
+        assertThrows(StepBudgetExceededException.class, () -> starved.execute(output));
+        assertEquals("n=1 cats\nn=200 cats\n", output.getOutput());
+        assertThrows(IllegalArgumentException.class, () -> new CompileOptions().setMeteredSteps(-1));
+    }
+
+    private ByteCodeGenerator generatorFor(String src, CompileOptions options) {
+        CatScriptProgram program = new CatScriptParser().parse(src);
+        program.verify();
+        return new ByteCodeGenerator(program, options);
+    }
+}
@@ -0,0 +1,100 @@
+package edu.montana.csci.csci468.bytecode;
+
+import edu.montana.csci.csci468.CatscriptTestBase;
+import edu.montana.csci.csci468.eval.ExecutionBudget;
+import edu.montana.csci.csci468.eval.StringOutputSink;
+import edu.montana.csci.csci468.parser.ParseErrorException;
+import edu.montana.csci.csci468.parser.statements.CatScriptProgram;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompiledProgramCacheTest extends CatscriptTestBase {
+
+    @Test
+    void repeatedSourceReusesCompiledClass() {
+        CompiledProgramCache cache = new CompiledProgramCache(4);
+        CatScriptProgram first = cache.getProgram("print(1 + 1)");
+        CatScriptProgram second = cache.getProgram("print(1 + 1)");
+        assertNotSame(first, second);
+        assertSame(first.getClass(), second.getClass());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+
+        first.execute();
+        second.execute();
+        assertEquals("2\n", first.getOutput());
+        assertEquals("2\n", second.getOutput());
+    }
+
+    @Test
+    void programsTheCompilerCannotHandleAreCachedForTheInterpreter() {
+        // assignments do not compile yet
+        String src = "var s = \"a\"\ns = \"b\"\nprint(s)";
+        CompiledProgramCache cache = new CompiledProgramCache(4);
+        CatScriptProgram first = cache.getRunnableProgram(src);
+        CatScriptProgram second = cache.getRunnableProgram(src);
+        assertSame(first, second);
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getHits());
+        assertThrows(UnsupportedCompileException.class, () -> cache.getProgram(src));
+        assertEquals(1, cache.getMisses());
+
+        StringOutputSink output = new StringOutputSink();
+        first.execute(output, ExecutionBudget.unlimited());
+        assertEquals("b\n", output.getOutput());
+        CatScriptProgram compiled = cache.getRunnableProgram("print(1 + 1)");
+        assertTrue(compiled instanceof JVMCatScriptProgram);
+    }
+
+    @Test
+    void leastRecentlyUsedProgramIsEvicted() {
+        CompiledProgramCache cache = new CompiledProgramCache(2);
+        Class<? extends CatScriptProgram> one = cache.getProgramClass("print(1)");
+        cache.getProgramClass("print(2)");
+        cache.getProgramClass("print(1)");
+        cache.getProgramClass("print(3)");
+        assertEquals(2, cache.size());
+        assertSame(one, cache.getProgramClass("print(1)"));
+        assertEquals(2, cache.getHits());
+        cache.getProgramClass("print(2)");
+        assertEquals(4, cache.getMisses());
+    }
+
+    @Test
+    void oneCompiledProgramServesConcurrentExecutions() throws Exception {
+        CompiledProgramCache cache = new CompiledProgramCache(2);
+        CatScriptProgram program = cache.getProgram("var name = \"x\"\n" +
+                "for(i in [1, 2, 3]) { print(name + i) }");
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> outputs = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                outputs.add(executor.submit(() -> {
+                    StringOutputSink output = new StringOutputSink();
+                    program.execute(output);
+                    return output.getOutput();
+                }));
+            }
+            for (Future<String> output : outputs) {
+                assertEquals("x1\nx2\nx3\n", output.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals("", program.getOutput());
+    }
+
+    @Test
+    void invalidProgramsAreNotCached() {
+        CompiledProgramCache cache = new CompiledProgramCache(2);
+        assertThrows(ParseErrorException.class, () -> cache.getProgram("print(x)"));
+        assertEquals(0, cache.size());
+    }
+}
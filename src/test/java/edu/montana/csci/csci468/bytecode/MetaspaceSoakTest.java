@@ -0,0 +1,67 @@
+package edu.montana.csci.csci468.bytecode;
+
+import edu.montana.csci.csci468.CatscriptTestBase;
+import edu.montana.csci.csci468.parser.CatScriptParser;
+import edu.montana.csci.csci468.parser.statements.CatScriptProgram;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.lang.management.ClassLoadingMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Long running, enable with: mvn test -Dtest=MetaspaceSoakTest -Dcatscript.soak=true
+@EnabledIfSystemProperty(named = "catscript.soak", matches = "true")
+public class MetaspaceSoakTest extends CatscriptTestBase {
+
+    private static final int PROGRAMS = Integer.getInteger("catscript.soak.programs", 100_000);
+    private static final long MAX_METASPACE_GROWTH = 32 * 1024 * 1024;
+
+    @Test
+    void isolatedProgramsAreUnloaded() {
+        CompileOptions options = new CompileOptions();
+        options.setIsolatedClassLoader(true);
+        ClassLoadingMXBean classLoading = ManagementFactory.getClassLoadingMXBean();
+
+        compileAndRun(options, 0, 1000);
+        long baseline = metaspaceUsedAfterGc();
+        long unloadedBefore = classLoading.getUnloadedClassCount();
+
+        long maxGrowth = 0;
+        for (int i = 1000; i < PROGRAMS; i += 10_000) {
+            compileAndRun(options, i, Math.min(PROGRAMS, i + 10_000));
+            long growth = metaspaceUsedAfterGc() - baseline;
+            assertTrue(growth < MAX_METASPACE_GROWTH,
+                    "Metaspace grew by " + growth + " bytes after " + (i + 10_000) + " programs");
+            maxGrowth = Math.max(maxGrowth, growth);
+        }
+        long unloaded = classLoading.getUnloadedClassCount() - unloadedBefore;
+        // the numbers a soak run is for, kept in the surefire output
+        System.out.println(PROGRAMS + " programs: Metaspace grew by at most " + maxGrowth +
+                " bytes, " + unloaded + " classes unloaded");
+        assertTrue(unloaded > (PROGRAMS - 1000) / 2);
+    }
+
+    private void compileAndRun(CompileOptions options, int from, int to) {
+        for (int i = from; i < to; i++) {
+            CatScriptProgram program = new CatScriptParser().parse("var x = " + i + "\nprint(x + 1)");
+            program.verify();
+            CatScriptProgram compiled = new ByteCodeGenerator(program, options).compileToBytecode();
+            compiled.execute();
+            assertEquals((i + 1) + "\n", compiled.getOutput());
+        }
+    }
+
+    private long metaspaceUsedAfterGc() {
+        System.gc();
+        System.gc();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getName().equals("Metaspace")) {
+                return pool.getUsage().getUsed();
+            }
+        }
+        throw new IllegalStateException("No Metaspace memory pool");
+    }
+}
@@ -0,0 +1,81 @@
+package edu.montana.csci.csci468.bytecode;
+
+import edu.montana.csci.csci468.CatscriptTestBase;
+import edu.montana.csci.csci468.parser.statements.CatScriptProgram;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProgramClassStoreTest extends CatscriptTestBase {
+
+    @Test
+    void storedClassesOutliveTheCache(@TempDir Path directory) {
+        ProgramClassStore store = new ProgramClassStore(directory, 1024 * 1024);
+        CompiledProgramCache first = new CompiledProgramCache(4, store);
+        first.getProgram("print(1 + 1)");
+        assertEquals(0, first.getStoreHits());
+
+        CompiledProgramCache second = new CompiledProgramCache(4, new ProgramClassStore(directory, 1024 * 1024));
+        CatScriptProgram program = second.getProgram("print(1 + 1)");
+        assertEquals(1, second.getStoreHits());
+        program.execute();
+        assertEquals("2\n", program.getOutput());
+    }
+
+    @Test
+    void corruptFilesAreCompiledAgain(@TempDir Path directory) throws IOException {
+        ProgramClassStore store = new ProgramClassStore(directory, 1024 * 1024);
+        new CompiledProgramCache(4, store).getProgram("print(3)");
+        Path file = programFiles(directory).get(0);
+        byte[] contents = Files.readAllBytes(file);
+        contents[contents.length / 2] ^= 0x55;
+        Files.write(file, contents);
+
+        CompiledProgramCache cache = new CompiledProgramCache(4, store);
+        CatScriptProgram program = cache.getProgram("print(3)");
+        assertEquals(0, cache.getStoreHits());
+        program.execute();
+        assertEquals("3\n", program.getOutput());
+
+        Files.write(file, new byte[]{1, 2, 3});
+        cache = new CompiledProgramCache(4, store);
+        cache.getProgram("print(3)");
+        assertEquals(0, cache.getStoreHits());
+        assertNotNull(store.load(CompiledProgramCache.hash("print(3)")));
+    }
+
+    @Test
+    void leastRecentlyUsedFilesAreEvicted(@TempDir Path directory) throws IOException {
+        ProgramClassStore unbounded = new ProgramClassStore(directory, Long.MAX_VALUE);
+        new CompiledProgramCache(4, unbounded).getProgram("print(0)");
+        long fileSize = Files.size(programFiles(directory).get(0));
+
+        ProgramClassStore store = new ProgramClassStore(directory, fileSize * 2 + fileSize / 2);
+        CompiledProgramCache cache = new CompiledProgramCache(4, store);
+        for (int i = 1; i <= 4; i++) {
+            cache.getProgram("print(" + i + ")");
+            // modification times are the eviction order, so keep them apart
+            for (Path file : programFiles(directory)) {
+                Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() - 1000));
+            }
+        }
+        assertEquals(2, programFiles(directory).size());
+        assertNotNull(store.load(CompiledProgramCache.hash("print(4)")));
+        assertNull(store.load(CompiledProgramCache.hash("print(1)")));
+    }
+
+    private List<Path> programFiles(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.toString().endsWith(".program")).collect(Collectors.toList());
+        }
+    }
+}
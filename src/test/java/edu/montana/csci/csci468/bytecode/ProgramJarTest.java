@@ -0,0 +1,45 @@
+package edu.montana.csci.csci468.bytecode;
+
+import edu.montana.csci.csci468.CatscriptTestBase;
+import edu.montana.csci.csci468.parser.ParseErrorException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarFile;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProgramJarTest extends CatscriptTestBase {
+
+    @Test
+    void jarRunsWithJavaDashJar(@TempDir Path directory) throws Exception {
+        Path jarFile = directory.resolve("program.jar");
+        ProgramJar.write("function greet(name : string) { print(\"hello \" + name) }\n" +
+                "for(x in [1, 2]) { print(x * 21) }\n" +
+                "greet(\"jar\")\n", new CompileOptions(), jarFile);
+
+        try (JarFile jar = new JarFile(jarFile.toFile())) {
+            assertNotNull(jar.getManifest().getMainAttributes().getValue("Main-Class"));
+        }
+
+        Path java = Paths.get(System.getProperty("java.home"), "bin", "java");
+        Process process = new ProcessBuilder(java.toString(), "-jar", jarFile.toString())
+                .redirectErrorStream(true)
+                .start();
+        assertTrue(process.waitFor(60, TimeUnit.SECONDS));
+        String output = new String(process.getInputStream().readAllBytes());
+        assertEquals("21\n42\nhello jar\n", output);
+        assertEquals(0, process.exitValue());
+    }
+
+    @Test
+    void programsWithErrorsAreNotWritten(@TempDir Path directory) {
+        Path jarFile = directory.resolve("program.jar");
+        assertThrows(ParseErrorException.class, () -> ProgramJar.write("print(x)", new CompileOptions(), jarFile));
+        assertFalse(Files.exists(jarFile));
+    }
+}
@@ -18,6 +18,14 @@ public class CatscriptBasicExpressionEvalTest extends CatscriptTestBase {
         assertEquals(Arrays.asList(1, 2, 3), evaluateExpression("[1, 2, 3]"));
     }
 
+    @Test
+    void intAndBoolListLiteralsArePrimitive() {
+        assertTrue(evaluateExpression("[1, 2, 3]") instanceof IntList);
+        assertTrue(evaluateExpression("[true, false]") instanceof BoolList);
+        assertEquals(Arrays.asList(true, false, true), evaluateExpression("[true, false, true]"));
+        assertFalse(evaluateExpression("[1, null]") instanceof IntList);
+    }
+
     @Test
     void unaryExpressionEvaluatesProperly() {
         assertEquals(-1, evaluateExpression("-1"));
@@ -78,4 +86,17 @@ public class CatscriptBasicExpressionEvalTest extends CatscriptTestBase {
         assertEquals(1, evaluateExpression("(1)"));
     }
 
+    @Test
+    void equalityComparesValues() {
+        assertEquals(false, evaluateExpression("1 == 2"));
+        assertEquals(true, evaluateExpression("1000 + 1 == 1001"));
+        assertEquals(true, evaluateExpression("\"a\" + 1 == \"a1\""));
+        assertEquals(false, evaluateExpression("true != true"));
+    }
+
+    @Test
+    void arithmeticChainsEvaluateProperly() {
+        assertEquals(-28716, evaluateExpression("(20 * 1000 + 7 * 37) / 3 - 20 * 7 * 11 * 23 + -(7 * 7)"));
+        assertEquals(true, evaluateExpression("not (3 * 1000 < 2999)"));
+    }
 }
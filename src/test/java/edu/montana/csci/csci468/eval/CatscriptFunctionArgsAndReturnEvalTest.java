@@ -102,5 +102,25 @@ public class CatscriptFunctionArgsAndReturnEvalTest extends CatscriptTestBase
                 "print(foo())"));
     }
 
+    @Test
+    void returnFromInsideLoopStopsTheFunction() {
+        assertEquals("1\n3\n", executeProgram("function foo() : int {" +
+                "for (x in [1, 2, 3]) { print(x) if (x == x) { return 3 } }" +
+                "return 4 }" +
+                "print(foo())"));
+    }
 
+    @Test
+    void voidReturnWorksProperly() {
+        assertEquals("1\n", executeProgram("function foo(x : int) { print(x) if (x > 0) { return } print(2) }" +
+                "foo(1)"));
+    }
+
+    @Test
+    void recursiveReturnWorksProperly() {
+        assertEquals("55\n", executeProgram("function fib(n : int) : int {" +
+                "if (n < 2) { return n }" +
+                "return fib(n - 1) + fib(n - 2) }" +
+                "print(fib(10))"));
+    }
 }
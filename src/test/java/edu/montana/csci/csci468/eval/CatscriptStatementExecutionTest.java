@@ -61,6 +61,21 @@ public class CatscriptStatementExecutionTest extends CatscriptTestBase {
         assertEquals("1\n2\n3\n", executeProgram("for(x in [1, 2, 3]) { print(x) }"));
     }
 
+    @Test
+    void forStatementOverPrimitiveListsWorksProperly() {
+        assertEquals("true\nfalse\ntrue\n", executeProgram("for(x in [true, false, true]) { print(x) }"));
+        assertEquals("3\n4\n6\n8\n", executeProgram("for(x in [1, 2]) { for(y in [3, 4]) { print(x * y) } }"));
+        assertEquals("", executeProgram("var xs : list<int> = [1]\n" +
+                "for(x in xs) { }"));
+        assertEquals("[1, null]\n", executeProgram("for(x in [[1, null]]) { print(x) }"));
+        assertEquals("null\n", executeProgram("var xs : list<int> = [null]\n" +
+                "for(x in xs) { print(x) }"));
+        assertEquals("null\n2\n", executeProgram("var xs : list<int> = [null, 2]\n" +
+                "for(x in xs) { print(x) }"));
+        assertEquals("true\nnull\n", executeProgram("var bs : list<bool> = [true, null]\n" +
+                "for(b in bs) { print(b) }"));
+    }
+
     @Test
     void functionDeclarationWorksProperly() {
         assertEquals("1\n2\n3\n", executeProgram("function foo(x) { print(x) }\n" +
@@ -92,4 +107,40 @@ public class CatscriptStatementExecutionTest extends CatscriptTestBase {
                 "print(foo(9))"
         ));
     }
+
+    @Test
+    void assignmentStatementWorks() {
+        assertEquals("1\n2\n", executeProgram("var x = 1\n" +
+                "print(x)\n" +
+                "x = 2\n" +
+                "print(x)"));
+    }
+
+    @Test
+    void functionsAssignToGlobals() {
+        assertEquals("3\n", executeProgram("var total = 0\n" +
+                "function add(x : int) { total = total + x }\n" +
+                "add(1)\n" +
+                "add(2)\n" +
+                "print(total)"));
+    }
+
+    @Test
+    void sameNameInSiblingBlocksUsesSeparateSlots() {
+        assertEquals("1\n2\n", executeProgram("if(true) { var x = 1 print(x) }\n" +
+                "if(true) { var x = 2 print(x) }"));
+    }
+
+    @Test
+    void recursiveCallsGetTheirOwnFrames() {
+        assertEquals("2\n1\n0\n0\n1\n2\n", executeProgram(
+                "function foo(x : int) {\n" +
+                        "var y = x\n" +
+                        "print(y)\n" +
+                        "if(x > 0) { foo(x - 1) }\n" +
+                        "print(y)\n" +
+                "}\n" +
+                "foo(2)"
+        ));
+    }
 }
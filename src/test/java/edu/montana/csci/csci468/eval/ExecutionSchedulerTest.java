@@ -0,0 +1,150 @@
+package edu.montana.csci.csci468.eval;
+
+import edu.montana.csci.csci468.CatscriptTestBase;
+import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
+import edu.montana.csci.csci468.parser.CatScriptParser;
+import edu.montana.csci.csci468.parser.statements.CatScriptProgram;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExecutionSchedulerTest extends CatscriptTestBase {
+
+    // a billion iterations, far more than any budget here allows
+    private static CatScriptProgram endlessProgram() {
+        StringBuilder list = new StringBuilder("[");
+        for (int i = 0; i < 1000; i++) {
+            list.append(i == 0 ? "" : ", ").append(i);
+        }
+        list.append("]");
+        CatScriptProgram program = new CatScriptParser().parse("var l = " + list + "\n" +
+                "for(i in l) { for(j in l) { for(k in l) { var x = i * j + k } } }");
+        program.verify();
+        return program;
+    }
+
+    @Test
+    void loopsStopWhenTheWallClockBudgetIsSpent() throws Exception {
+        CatScriptProgram interpreted = endlessProgram();
+        CatScriptProgram compiled = new ByteCodeGenerator(endlessProgram()).compileToBytecode();
+        try (ExecutionScheduler scheduler = new ExecutionScheduler(1, 4, 200, 0, false)) {
+            for (CatScriptProgram program : List.of(interpreted, compiled)) {
+                ExecutionCancelledException exception = assertThrows(ExecutionCancelledException.class,
+                        () -> scheduler.run(budget -> {
+                            program.execute(new StringOutputSink(), budget);
+                            return null;
+                        }));
+                assertTrue(exception.getMessage().contains("wall-clock"));
+            }
+            assertEquals(2, scheduler.getCancelled());
+            assertEquals("3\n", scheduler.run(budget -> {
+                StringOutputSink output = new StringOutputSink();
+                CatScriptProgram program = new CatScriptParser().parse("print(1 + 2)");
+                program.verify();
+                program.execute(output, budget);
+                return output.getOutput();
+            }));
+            assertEquals(1, scheduler.getCompleted());
+        }
+    }
+
+    @Test
+    void recursionStopsWhenTheWallClockBudgetIsSpent() throws Exception {
+        String src = "function fib(n : int) : int {\n" +
+                "  if(n < 2) { return n }\n" +
+                "  return fib(n - 1) + fib(n - 2)\n" +
+                "}\n" +
+                "print(fib(60))";
+        try (ExecutionScheduler scheduler = new ExecutionScheduler(1, 4, 200, 0, false)) {
+            CatScriptProgram program = new CatScriptParser().parse(src);
+            program.verify();
+            assertThrows(ExecutionCancelledException.class, () -> scheduler.run(budget -> {
+                program.execute(new StringOutputSink(), budget);
+                return null;
+            }));
+            // the execution has stopped, not just its caller
+            assertEquals(0, scheduler.getRunning());
+        }
+    }
+
+    @Test
+    void loopsStopWhenTheCpuTimeBudgetIsSpent() {
+        ExecutionBudget budget = new ExecutionBudget(0, 100);
+        budget.start();
+        ExecutionCancelledException exception = assertThrows(ExecutionCancelledException.class,
+                () -> endlessProgram().execute(new StringOutputSink(), budget));
+        assertTrue(exception.getMessage().contains("CPU time"));
+    }
+
+    @Test
+    void cancelledBudgetsStopTheExecution() {
+        ExecutionBudget budget = ExecutionBudget.unlimited();
+        budget.cancel();
+        assertThrows(ExecutionCancelledException.class, () -> endlessProgram().execute(new StringOutputSink(), budget));
+    }
+
+    @Test
+    void executionsBeyondMaxPendingAreRejected() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try (ExecutionScheduler scheduler = new ExecutionScheduler(1, 2, 0, 0, false)) {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                results.add(callers.submit(() -> scheduler.run(budget -> {
+                    release.await();
+                    return "done";
+                })));
+            }
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while ((scheduler.getRunning() != 1 || scheduler.getQueueDepth() != 1) && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(1, scheduler.getRunning());
+            assertEquals(1, scheduler.getQueueDepth());
+
+            assertThrows(RejectedExecutionException.class, () -> scheduler.run(budget -> "rejected"));
+            assertEquals(1, scheduler.getRejected());
+
+            release.countDown();
+            for (Future<String> result : results) {
+                assertEquals("done", result.get(10, TimeUnit.SECONDS));
+            }
+            assertEquals(0, scheduler.getQueueDepth());
+            assertTrue(scheduler.getMaxQueueDepth() >= 1);
+            assertEquals(2, scheduler.getCompleted());
+        } finally {
+            callers.shutdown();
+        }
+    }
+
+    @Test
+    void cancelledExecutionsHaveStoppedBeforeTheCallerCarriesOn() {
+        AtomicBoolean stopped = new AtomicBoolean();
+        try (ExecutionScheduler scheduler = new ExecutionScheduler(1, 4, 100, 0, false)) {
+            assertThrows(ExecutionCancelledException.class, () -> scheduler.run(budget -> {
+                try {
+                    Thread.sleep(10_000);
+                } finally {
+                    // winding down takes a while after the interrupt
+                    long until = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(200);
+                    while (System.nanoTime() < until) {
+                        Thread.onSpinWait();
+                    }
+                    stopped.set(true);
+                }
+                return null;
+            }));
+            assertTrue(stopped.get());
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package edu.montana.csci.csci468.eval;
+
+import edu.montana.csci.csci468.CatscriptTestBase;
+import edu.montana.csci.csci468.parser.CatScriptParser;
+import edu.montana.csci.csci468.parser.statements.CatScriptProgram;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OutputSinkTest extends CatscriptTestBase {
+
+    @Test
+    void ringBufferKeepsTheLastCharacters() {
+        RingBufferOutputSink sink = new RingBufferOutputSink(8);
+        sink.print("abc");
+        assertEquals("abc\n", sink.getOutput());
+        sink.print(12345);
+        assertEquals("c\n12345\n", sink.getOutput());
+        assertEquals(2, sink.getDropped());
+        sink.print("0123456789");
+        assertEquals("3456789\n", sink.getOutput());
+        assertEquals(13, sink.getDropped());
+    }
+
+    @Test
+    void writerSinkWritesEachPrint() {
+        StringWriter writer = new StringWriter();
+        CatScriptProgram program = new CatScriptParser().parse("print(1)\nprint(\"two\")");
+        program.verify();
+        program.execute(new WriterOutputSink(writer));
+        assertEquals("1\ntwo\n", writer.toString());
+        assertEquals("", program.getOutput());
+    }
+
+    @Test
+    void streamingSinkWritesFullChunks() {
+        List<Integer> writes = new ArrayList<>();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream() {
+            @Override
+            public void write(byte[] b) throws IOException {
+                writes.add(b.length);
+                super.write(b);
+            }
+        };
+        StreamingOutputSink sink = new StreamingOutputSink(bytes, 16, Long.MAX_VALUE / 1_000_000);
+        for (int i = 0; i < 10; i++) {
+            sink.print("line" + i);
+        }
+        // the first line on its own, then three chunks of three six character lines
+        assertEquals(List.of(6, 18, 18, 18), writes);
+        sink.close();
+        assertEquals(4, sink.getChunksWritten());
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 10; i++) {
+            expected.append("line").append(i).append('\n');
+        }
+        assertEquals(expected.toString(), bytes.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void streamingSinkSendsOutputBeforeTheProgramFinishes() throws Exception {
+        PipedInputStream in = new PipedInputStream(256);
+        OutputStream out = new PipedOutputStream(in);
+        CatScriptProgram program = new CatScriptParser().parse("print(\"first\")\n" +
+                "for(i in [1, 2, 3, 4, 5, 6, 7, 8, 9, 10]) { for(j in [1, 2, 3, 4, 5, 6, 7, 8, 9, 10]) { print(i * j) } }");
+        program.verify();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> execution = executor.submit(() -> {
+                try (StreamingOutputSink sink = new StreamingOutputSink(out, 64, 0)) {
+                    program.execute(sink);
+                }
+                out.close();
+                return null;
+            });
+            assertEquals("first\n", new String(in.readNBytes(6), StandardCharsets.UTF_8));
+            // the pipe holds 256 bytes, so the program is held up until the rest is read
+            Thread.sleep(100);
+            assertFalse(execution.isDone());
+            String rest = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            execution.get(10, TimeUnit.SECONDS);
+            assertEquals(100, rest.split("\n").length);
+            assertTrue(rest.endsWith("90\n100\n"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void streamingSinkDoesNotHoldLinesPastTheMaxDelay() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        long[] now = {0};
+        StreamingOutputSink sink = new StreamingOutputSink(bytes, 1024, 20, () -> now[0]);
+        sink.print("first");
+        assertEquals("first\n", bytes.toString(StandardCharsets.UTF_8));
+        now[0] += TimeUnit.MILLISECONDS.toNanos(5);
+        sink.print("second");
+        now[0] += TimeUnit.MILLISECONDS.toNanos(19);
+        sink.flushIfDue();
+        assertEquals("first\n", bytes.toString(StandardCharsets.UTF_8));
+        now[0] += TimeUnit.MILLISECONDS.toNanos(1);
+        sink.flushIfDue();
+        assertEquals("first\nsecond\n", bytes.toString(StandardCharsets.UTF_8));
+        // nothing was written for longer than the delay, so this goes out at once
+        now[0] += TimeUnit.MILLISECONDS.toNanos(20);
+        sink.print("third");
+        assertEquals("first\nsecond\nthird\n", bytes.toString(StandardCharsets.UTF_8));
+        now[0] += TimeUnit.MILLISECONDS.toNanos(1);
+        sink.print("fourth");
+        assertEquals("first\nsecond\nthird\n", bytes.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void oneProgramRunsConcurrently() throws Exception {
+        CatScriptProgram program = new CatScriptParser().parse("function count(label : string) {\n" +
+                "  for(i in [1, 2, 3, 4, 5]) { print(label + i) }\n" +
+                "}\n" +
+                "var name = \"x\"\n" +
+                "count(name)");
+        program.verify();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> outputs = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                outputs.add(executor.submit(() -> {
+                    StringOutputSink output = new StringOutputSink();
+                    program.execute(output);
+                    return output.getOutput();
+                }));
+            }
+            for (Future<String> output : outputs) {
+                assertEquals("x1\nx2\nx3\nx4\nx5\n", output.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -1,12 +1,12 @@
 package edu.montana.csci.csci468.parser;
 
 import edu.montana.csci.csci468.CatscriptTestBase;
+import edu.montana.csci.csci468.parser.statements.CatScriptProgram;
 import org.junit.jupiter.api.Test;
 
 import java.util.List;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.fail;
+import static org.junit.jupiter.api.Assertions.*;
 
 public class CatscriptParserErrorsTest extends CatscriptTestBase {
 
@@ -16,6 +16,36 @@ public class CatscriptParserErrorsTest extends CatscriptTestBase {
         assertError(errors, 0, ErrorType.UNKNOWN_NAME, 1, 0);
     }
 
+    @Test
+    public void errorsPointAtTheirLineAndColumn() {
+        List<ParseError> errors = getErrors("var x = 1\nvar y = 2\nprint(  zz)");
+        assertError(errors, 0, ErrorType.UNKNOWN_NAME, 3, 8);
+        assertEquals("Line 3:print(  zz)\n" + " ".repeat(15) + "^",
+                errors.get(0).getFullMessage().substring(0, 35));
+    }
+
+    @Test
+    public void linesAfterMultiLineStringsAreCounted() {
+        List<ParseError> errors = getErrors("var s = \"a\nb\"\nprint(zz)");
+        assertError(errors, 0, ErrorType.UNKNOWN_NAME, 3, 6);
+        assertEquals("print(zz)", errors.get(0).getLocation().getLineContent());
+    }
+
+    @Test
+    public void manyErrorsAreReported() {
+        StringBuilder source = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            source.append("print(missing").append(i).append(")\n");
+        }
+        ParseErrorException exception = assertThrows(ParseErrorException.class, () -> {
+            CatScriptProgram program = new CatScriptParser().parse(source.toString());
+            program.verify();
+        });
+        assertEquals(5000, exception.getErrors().size());
+        assertEquals(5000, exception.getErrors().get(4999).getLocation().getLine());
+        assertTrue(exception.getMessage().contains("Line 5000:print(missing4999)"));
+    }
+
     private void assertError(List<ParseError> errors, int errorIndex, ErrorType errorType) {
         assertError(errors, errorIndex, errorType, -1, -1);
     }
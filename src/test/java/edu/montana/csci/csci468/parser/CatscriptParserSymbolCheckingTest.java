@@ -1,13 +1,19 @@
 package edu.montana.csci.csci468.parser;
 
 import edu.montana.csci.csci468.CatscriptTestBase;
+import edu.montana.csci.csci468.parser.statements.CatScriptProgram;
 import edu.montana.csci.csci468.parser.statements.PrintStatement;
 import edu.montana.csci.csci468.parser.statements.Statement;
 import edu.montana.csci.csci468.parser.statements.VariableStatement;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public class CatscriptParserSymbolCheckingTest extends CatscriptTestBase {
 
@@ -54,6 +60,41 @@ public class CatscriptParserSymbolCheckingTest extends CatscriptTestBase {
         assertNotNull(statement);
     }
 
+    @Test
+    void parallelVerifyReportsErrorsInSourceOrder() {
+        StringBuilder src = new StringBuilder("var g = 1\n");
+        for (int i = 0; i < 200; i++) {
+            src.append("function f").append(i).append("(a : int) : int {\n")
+                    .append("  print(").append(i % 7 == 0 ? "late" : "g").append(")\n")
+                    .append("  return a + g\n")
+                    .append("}\n");
+        }
+        src.append("var late = 2\n").append("print(y)\n");
+
+        List<String> sequential = errorMessages(src.toString(), null);
+        List<String> parallel = errorMessages(src.toString(), new ForkJoinPool(4));
+        assertEquals(30, sequential.size());
+        assertEquals(sequential, parallel);
+    }
+
+    @Test
+    void parallelVerifyStillResolvesSlots() {
+        CatScriptProgram program = new CatScriptParser().parse("var g = 2\n" +
+                "function twice(a : int) : int { return a * g }\n" +
+                "print(twice(21))");
+        program.verify(ForkJoinPool.commonPool());
+        program.execute();
+        assertEquals("42\n", program.getOutput());
+    }
+
+    private List<String> errorMessages(String src, ForkJoinPool pool) {
+        CatScriptProgram program = new CatScriptParser().parse(src);
+        ParseErrorException exception = assertThrows(ParseErrorException.class, () -> program.verify(pool));
+        return exception.getErrors().stream()
+                .map(error -> error.getLocation().getLine() + ":" + error.getErrorType())
+                .collect(Collectors.toList());
+    }
+
     @Test
     void ifStatementBranchesDoNotConflic() {
         Statement statement = parseStatement("if(true){ var x = 10 } else { var x = true }\n");
@@ -7,6 +7,13 @@ import edu.montana.csci.csci468.parser.statements.PrintStatement;
 import edu.montana.csci.csci468.parser.statements.Statement;
 import edu.montana.csci.csci468.parser.statements.VariableStatement;
 import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 public class CatscriptParserTypeCheckingTest extends CatscriptTestBase {
@@ -77,5 +84,67 @@ public class CatscriptParserTypeCheckingTest extends CatscriptTestBase {
         assertEquals(ErrorType.INCOMPATIBLE_TYPES, getParseError("1 > true"));
     }
 
+    @Test
+    void assignabilityMatchesTheTypeRules() {
+        CatscriptType listOfInt = CatscriptType.getListType(CatscriptType.INT);
+        CatscriptType listOfObject = CatscriptType.getListType(CatscriptType.OBJECT);
+        CatscriptType listOfListOfInt = CatscriptType.getListType(listOfInt);
+        assertTrue(CatscriptType.OBJECT.isAssignableFrom(CatscriptType.INT));
+        assertFalse(CatscriptType.INT.isAssignableFrom(CatscriptType.OBJECT));
+        assertTrue(CatscriptType.INT.isAssignableFrom(CatscriptType.NULL));
+        assertFalse(CatscriptType.OBJECT.isAssignableFrom(CatscriptType.VOID));
+        assertTrue(listOfObject.isAssignableFrom(listOfInt));
+        assertFalse(listOfInt.isAssignableFrom(listOfObject));
+        assertTrue(listOfInt.isAssignableFrom(CatscriptType.NULL));
+        assertFalse(listOfInt.isAssignableFrom(CatscriptType.INT));
+        assertTrue(CatscriptType.getListType(listOfObject).isAssignableFrom(listOfListOfInt));
+        assertTrue(CatscriptType.OBJECT.isAssignableFrom(listOfListOfInt));
+        assertNotEquals(listOfInt.getId(), listOfObject.getId());
+    }
 
-}
\ No newline at end of file
+    @Test
+    void deeplyNestedTypesAreCheckedWithoutBeingRegistered() {
+        CatscriptType ints = CatscriptType.INT;
+        CatscriptType objects = CatscriptType.OBJECT;
+        for (int depth = 0; depth < 40; depth++) {
+            ints = CatscriptType.getListType(ints);
+            objects = CatscriptType.getListType(objects);
+            assertTrue(objects.isAssignableFrom(ints));
+            assertFalse(ints.isAssignableFrom(objects));
+            assertTrue(ints.isAssignableFrom(CatscriptType.NULL));
+        }
+        assertEquals(-1, ints.getId());
+        // not interned, but still equal by name
+        assertEquals(CatscriptType.getListType(ints), CatscriptType.getListType(ints));
+        // the six builtins and lists of them up to the maximum depth
+        assertTrue(CatscriptType.registeredTypes() <= 6 * (CatscriptType.MAX_INTERNED_DEPTH + 1));
+    }
+
+    @Test
+    void typesRegisteredConcurrentlyAgree() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                results.add(pool.submit(() -> {
+                    CatscriptType type = CatscriptType.BOOLEAN;
+                    for (int depth = 0; depth < 50; depth++) {
+                        CatscriptType list = CatscriptType.getListType(type);
+                        if (!CatscriptType.getListType(CatscriptType.OBJECT).isAssignableFrom(list) ||
+                                list.isAssignableFrom(CatscriptType.getListType(CatscriptType.OBJECT)) ||
+                                !list.isAssignableFrom(list)) {
+                            return false;
+                        }
+                        type = list;
+                    }
+                    return true;
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
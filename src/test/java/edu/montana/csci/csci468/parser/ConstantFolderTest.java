@@ -0,0 +1,135 @@
+package edu.montana.csci.csci468.parser;
+
+import edu.montana.csci.csci468.CatscriptTestBase;
+import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
+import edu.montana.csci.csci468.parser.expressions.*;
+import edu.montana.csci.csci468.parser.statements.*;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConstantFolderTest extends CatscriptTestBase {
+
+    @Test
+    void arithmeticFoldsToALiteral() {
+        CatScriptProgram program = optimized("1 + 2 * 3");
+        assertEquals(7, ((IntegerLiteralExpression) program.getExpression()).getValue());
+    }
+
+    @Test
+    void removedNodesAreCounted() {
+        CatScriptProgram program = new CatScriptParser().parse("1 + 2 * 3");
+        program.verify();
+        assertEquals(4, program.optimize());
+    }
+
+    @Test
+    void stringConcatenationFolds() {
+        CatScriptProgram program = optimized("\"a\" + 1 + 2");
+        assertEquals("a12", ((StringLiteralExpression) program.getExpression()).getValue());
+    }
+
+    @Test
+    void comparisonsAndUnaryFold() {
+        assertFalse(((BooleanLiteralExpression) optimized("not (1 < 2)").getExpression()).getValue());
+        assertTrue(((BooleanLiteralExpression) optimized("-(2 * 3) == -6").getExpression()).getValue());
+        assertTrue(((BooleanLiteralExpression) optimized("null == null").getExpression()).getValue());
+    }
+
+    @Test
+    void divisionByZeroIsNotFolded() {
+        assertTrue(optimized("1 / 0").getExpression() instanceof FactorExpression);
+    }
+
+    @Test
+    void variablesAreNotFolded() {
+        CatScriptProgram program = optimized("var x = 1\nprint(x + (2 + 3))");
+        AdditiveExpression expression = (AdditiveExpression) ((PrintStatement) program.getStatements().get(1)).getExpression();
+        assertTrue(expression.getLeftHandSide() instanceof IdentifierExpression);
+        assertEquals(5, ((IntegerLiteralExpression) expression.getRightHandSide()).getValue());
+    }
+
+    @Test
+    void identityOperationsAreSimplified() {
+        String src = "var x = 2\nvar b = true\nprint(x * 1 + 0)\nprint(0 * x)\nprint(not not b)\nprint(- -x)";
+        CatScriptProgram program = optimized(src);
+        assertTrue(printed(program, 2) instanceof IdentifierExpression);
+        assertEquals(0, ((IntegerLiteralExpression) printed(program, 3)).getValue());
+        assertTrue(printed(program, 4) instanceof IdentifierExpression);
+        assertTrue(printed(program, 5) instanceof IdentifierExpression);
+        program.execute();
+        assertEquals("2\n0\ntrue\n2\n", program.getOutput());
+
+        CatScriptProgram counted = new CatScriptParser().parse(src);
+        counted.verify();
+        assertEquals(10, counted.optimize());
+    }
+
+    @Test
+    void simplificationKeepsConcatenationAndCalls() {
+        assertTrue(printed(optimized("var s = \"a\"\nprint(s + 0)"), 1) instanceof AdditiveExpression);
+        CatScriptProgram program = optimized("function f() : int { print(1)\n return 1 }\nprint(f() * 0)");
+        assertTrue(printed(program, 1) instanceof FactorExpression);
+        program.execute();
+        assertEquals("1\n0\n", program.getOutput());
+        assertTrue(printed(optimized("var x = 2\nprint((1 / x) * 0)"), 1) instanceof FactorExpression);
+    }
+
+    @Test
+    void deadBranchesAreRemoved() {
+        CatScriptProgram program = optimized("function foo() {\n" +
+                "  if (1 > 2) { print(1) } else { print(2) }\n" +
+                "  print(3)\n" +
+                "}\n" +
+                "foo()");
+        FunctionDefinitionStatement foo = program.getFunction("foo");
+        assertEquals(2, foo.getBody().size());
+        assertTrue(foo.getBody().get(0) instanceof PrintStatement);
+        assertSame(foo, foo.getBody().get(0).getParent());
+        program.execute();
+        assertEquals("2\n3\n", program.getOutput());
+    }
+
+    @Test
+    void topLevelIfStatementsKeepTheirPlace() {
+        CatScriptProgram program = optimized("if (1 > 2) { print(1) } else { print(2) }\nprint(3)");
+        assertEquals(2, program.getStatements().size());
+        IfStatement ifStatement = (IfStatement) program.getStatements().get(0);
+        assertTrue(ifStatement.getTrueStatements().isEmpty());
+        program.execute();
+        assertEquals("2\n3\n", program.getOutput());
+    }
+
+    @Test
+    void branchesWithDeclarationsKeepTheirScope() {
+        CatScriptProgram program = optimized("if (true) { var x = 1 print(x) } else { print(2) }\nvar x = 2\nprint(x)");
+        IfStatement ifStatement = (IfStatement) program.getStatements().get(0);
+        assertTrue(ifStatement.getElseStatements().isEmpty());
+        program.execute();
+        assertEquals("1\n2\n", program.getOutput());
+    }
+
+    @Test
+    void foldedProgramsCompile() {
+        CatScriptProgram program = optimized("function foo(x : int) {\n" +
+                "  if (not false) { print(x * (2 + 3) + 1 + 1) }\n" +
+                "}\n" +
+                "foo(2)");
+        CatScriptProgram compiled = new ByteCodeGenerator(program).compileToBytecode();
+        compiled.execute();
+        assertEquals("12\n", compiled.getOutput());
+        program.execute();
+        assertEquals("12\n", program.getOutput());
+    }
+
+    private CatScriptProgram optimized(String source) {
+        CatScriptProgram program = new CatScriptParser().parse(source);
+        program.verify();
+        program.optimize();
+        return program;
+    }
+
+    private static Expression printed(CatScriptProgram program, int statement) {
+        return ((PrintStatement) program.getStatements().get(statement)).getExpression();
+    }
+}
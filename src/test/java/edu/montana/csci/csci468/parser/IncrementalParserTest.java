@@ -0,0 +1,139 @@
+package edu.montana.csci.csci468.parser;
+
+import edu.montana.csci.csci468.CatscriptTestBase;
+import edu.montana.csci.csci468.parser.statements.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IncrementalParserTest extends CatscriptTestBase {
+
+    private static final String SOURCE = "var x = 1\n" +
+            "function foo(a : int) : int {\n" +
+            "  return a + x\n" +
+            "}\n" +
+            "print(foo(1))\n" +
+            "var y = [1, 2, 3]\n" +
+            "for (i in y) { print(i * 2) }\n" +
+            "print(\"done\")\n";
+
+    @Test
+    void editsInsideAStatementOnlyReparseThatStatement() {
+        IncrementalParser parser = new IncrementalParser();
+        CatScriptProgram original = parser.parse(SOURCE);
+        Statement print = original.getStatements().get(2);
+        Statement last = original.getStatements().get(5);
+
+        CatScriptProgram edited = parser.parse(SOURCE.replace("a + x", "a * 10 + x"));
+        assertEquals(1, parser.getReparsedStatements());
+        assertEquals(5, parser.getReusedStatements());
+        assertSame(print, edited.getStatements().get(2));
+        assertSame(last, edited.getStatements().get(5));
+        assertSame(edited, last.getParent());
+        assertMatchesFullParse(edited);
+    }
+
+    @Test
+    void reusedTokensMoveWithTheEdit() {
+        IncrementalParser parser = new IncrementalParser();
+        parser.parse(SOURCE);
+        String source = SOURCE.replace("var x = 1\n", "var x = 1\n\n// two more lines\n");
+        CatScriptProgram edited = parser.parse(source);
+        assertEquals(edited.getStatements().size() - 1, parser.getReusedStatements());
+
+        Statement done = edited.getStatements().get(5);
+        assertEquals(source.lastIndexOf("print"), done.getStart().getStart());
+        assertEquals(10, done.getStart().getLine());
+        assertEquals(0, done.getStart().getLineOffset());
+        assertEquals("print(\"done\")", done.getStart().getLineContent());
+        assertMatchesFullParse(edited);
+    }
+
+    @Test
+    void editsThatChangeStatementBoundariesAreReparsed() {
+        IncrementalParser parser = new IncrementalParser();
+        parser.parse(SOURCE);
+        // joining two statements makes the first swallow the start of the second
+        CatScriptProgram edited = parser.parse(SOURCE.replace("var x = 1\nfunction", "var x = 1 + 2\nfunction"));
+        assertMatchesFullParse(edited);
+        edited = parser.parse(edited.getSource().toString().replace("print(\"done\")", "print(\"done\" + y)"));
+        assertMatchesFullParse(edited);
+        edited = parser.parse(edited.getSource().toString().replace("print(foo(1))", "print(bar(1))"));
+        assertMatchesFullParse(edited);
+        assertThrows(ParseErrorException.class, edited::verify);
+    }
+
+    @Test
+    void anUnterminatedStringReparsesTheRest() {
+        IncrementalParser parser = new IncrementalParser();
+        parser.parse(SOURCE);
+        CatScriptProgram edited = parser.parse(SOURCE.replace("print(foo(1))", "print(\"foo(1))"));
+        assertEquals(2, parser.getReusedStatements());
+        assertMatchesFullParse(edited);
+    }
+
+    @Test
+    void verifiedStatementsCanBeVerifiedAgain() {
+        IncrementalParser parser = new IncrementalParser();
+        CatScriptProgram program = parser.parse("print(z)\nvar w = 2\nprint(w)");
+        assertThrows(ParseErrorException.class, program::verify);
+
+        program = parser.parse("var z = 1\nprint(z)\nvar w = 2\nprint(w)");
+        assertEquals(3, parser.getReusedStatements());
+        program.verify();
+        program.optimize();
+        program.execute();
+        assertEquals("1\n2\n", program.getOutput());
+    }
+
+    @Test
+    void expressionsFallBackToAFullParse() {
+        IncrementalParser parser = new IncrementalParser();
+        parser.parse("foo(1)\nfoo(2)");
+        CatScriptProgram program = parser.parse("foo(1)");
+        assertTrue(program.isExpression());
+        program = parser.parse("1 + 2");
+        assertTrue(program.isExpression());
+        assertEquals(0, parser.getReusedStatements());
+    }
+
+    @Test
+    void textEditsFindTheChangedRange() {
+        TextEdit edit = TextEdit.between("print(1)\nprint(2)", "print(1)\nprint(22)");
+        assertEquals(16, edit.getOffset());
+        assertEquals(0, edit.getRemovedLength());
+        assertEquals("2", edit.getInsertedText());
+        assertEquals("print(1)\nprint(22)", edit.applyTo("print(1)\nprint(2)"));
+
+        TextEdit newLines = new TextEdit(0, 9, "\n\n");
+        assertEquals(1, newLines.getLineDelta("print(1)\nprint(2)"));
+    }
+
+    private void assertMatchesFullParse(CatScriptProgram incremental) {
+        CatScriptProgram full = new CatScriptParser().parse(incremental.getSource().toString());
+        List<Statement> expected = full.getStatements();
+        List<Statement> actual = incremental.getStatements();
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getClass(), actual.get(i).getClass());
+            assertEquals(expected.get(i).getStart().getStart(), actual.get(i).getStart().getStart());
+            assertEquals(expected.get(i).getStart().getLine(), actual.get(i).getStart().getLine());
+            assertEquals(expected.get(i).getStart().getLineOffset(), actual.get(i).getStart().getLineOffset());
+            assertEquals(expected.get(i).getErrors().size(), actual.get(i).getErrors().size());
+        }
+        String expectedOutput = run(full);
+        assertEquals(expectedOutput, run(incremental));
+    }
+
+    private String run(CatScriptProgram program) {
+        try {
+            program.verify();
+            program.execute();
+            return program.getOutput();
+        } catch (ParseErrorException e) {
+            return e.getMessage();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package edu.montana.csci.csci468.parser;
+
+import edu.montana.csci.csci468.CatscriptTestBase;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PersistentMapTest extends CatscriptTestBase {
+
+    @Test
+    void oldVersionsAreUnchanged() {
+        PersistentMap<Integer> empty = PersistentMap.empty();
+        PersistentMap<Integer> one = empty.put("x", 1);
+        PersistentMap<Integer> two = one.put("y", 2);
+        PersistentMap<Integer> replaced = two.put("x", 3);
+
+        assertNull(empty.get("x"));
+        assertEquals(1, one.get("x"));
+        assertNull(one.get("y"));
+        assertEquals(1, two.get("x"));
+        assertEquals(3, replaced.get("x"));
+        assertEquals(2, replaced.size());
+        assertEquals(0, empty.size());
+    }
+
+    @Test
+    void manyKeysMatchAHashMap() {
+        Map<String, Integer> expected = new HashMap<>();
+        PersistentMap<Integer> map = PersistentMap.empty();
+        for (int i = 0; i < 20000; i++) {
+            String key = "v" + (i * 7919 % 5003);
+            expected.put(key, i);
+            map = map.put(key, i);
+        }
+        assertEquals(expected.size(), map.size());
+        for (Map.Entry<String, Integer> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), map.get(entry.getKey()));
+        }
+        assertFalse(map.containsKey("missing"));
+    }
+
+    @Test
+    void collidingHashesAreKeptApart() {
+        // "Aa" and "BB" share a hash code, as do their concatenations
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+        PersistentMap<String> map = PersistentMap.<String>empty()
+                .put("AaAa", "1").put("BBBB", "2").put("AaBB", "3").put("x", "4").put("BBAa", "5");
+        assertEquals(5, map.size());
+        assertEquals("1", map.get("AaAa"));
+        assertEquals("2", map.get("BBBB"));
+        assertEquals("3", map.get("AaBB"));
+        assertEquals("4", map.get("x"));
+        assertEquals("5", map.get("BBAa"));
+        assertNull(map.get("BBBa"));
+        assertEquals("6", map.put("BBBB", "6").get("BBBB"));
+        assertEquals(5, map.put("BBBB", "6").size());
+    }
+}
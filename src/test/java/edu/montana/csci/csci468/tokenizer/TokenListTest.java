@@ -0,0 +1,73 @@
+package edu.montana.csci.csci468.tokenizer;
+
+import edu.montana.csci.csci468.CatscriptTestBase;
+import edu.montana.csci.csci468.parser.CatScriptParser;
+import edu.montana.csci.csci468.parser.statements.CatScriptProgram;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static edu.montana.csci.csci468.tokenizer.TokenType.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TokenListTest extends CatscriptTestBase {
+
+    @Test
+    void resetReturnsToTheMark() {
+        TokenList tokens = getTokenList("var x = 1");
+        tokens.consumeToken();
+        tokens.mark();
+        tokens.consumeToken();
+        tokens.consumeToken();
+        tokens.reset();
+        assertEquals("x", tokens.getCurrentToken().getStringValue());
+    }
+
+    @Test
+    void consumedTokensAreDroppedWithoutAMark() {
+        StringBuilder source = new StringBuilder();
+        for (int i = 0; i < 10000; i++) {
+            source.append("print(").append(i).append(")\n");
+        }
+        TokenList tokens = getTokenList(source.toString());
+        tokens.clearMark();
+        int maxBuffered = 0;
+        while (tokens.hasMoreTokens()) {
+            tokens.consumeToken();
+            maxBuffered = Math.max(maxBuffered, tokens.getBufferedTokenCount());
+        }
+        assertTrue(maxBuffered < 1024, "buffered " + maxBuffered + " tokens");
+        assertEquals(")", tokens.lastToken().getStringValue());
+    }
+
+    @Test
+    void readerSourceMatchesStringSource() {
+        String source = "function foo(x : int) {\n  print(\"a\" + x) // comment\n}\nfoo(1)";
+        List<TokenType> expected = getTokenList(source).stream().map(Token::getType).collect(Collectors.toList());
+        TokenList tokens = new CatScriptTokenizer(new StringReader(source)).getTokens();
+        assertEquals(expected, tokens.stream().map(Token::getType).collect(Collectors.toList()));
+    }
+
+    @Test
+    void mappedFileSourceParses(@TempDir Path directory) throws Exception {
+        Path file = directory.resolve("test.cat");
+        Files.write(file, "var x = 1\nprint(x + 2)\n".getBytes(StandardCharsets.US_ASCII));
+        CatScriptProgram program = new CatScriptParser().parse(file);
+        program.verify();
+        program.execute();
+        assertEquals("3\n", program.getOutput());
+    }
+
+    @Test
+    void lineContentIsAvailableFromAReader() {
+        TokenList tokens = new CatScriptTokenizer(new StringReader("var x = 1\nprint(x)")).getTokens();
+        Token print = tokens.stream().filter(token -> token.getType() == PRINT).findFirst().get();
+        assertEquals("print(x)", print.getLineContent());
+    }
+}
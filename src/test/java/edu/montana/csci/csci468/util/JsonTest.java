@@ -0,0 +1,27 @@
+package edu.montana.csci.csci468.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JsonTest {
+
+    @Test
+    void valuesAreParsed() {
+        Map<?, ?> object = (Map<?, ?>) Json.parse(" {\"a\": [1, -2.5e1, true, false, null], \"b\": {}, \"c\": \"x\\u0041\\n\"} ");
+        assertEquals(Arrays.asList(1.0, -25.0, true, false, null), object.get("a"));
+        assertEquals(Map.of(), object.get("b"));
+        assertEquals("xA\n", object.get("c"));
+        assertThrows(IllegalArgumentException.class, () -> Json.parse("{\"a\" 1}"));
+        assertThrows(IllegalArgumentException.class, () -> Json.parse("[1] 2"));
+    }
+
+    @Test
+    void quotedStringsParseBack() {
+        String value = "tab\there \"quoted\" back\\slash \u0001 line\n";
+        assertEquals(value, Json.parse(Json.quote(value)));
+    }
+}